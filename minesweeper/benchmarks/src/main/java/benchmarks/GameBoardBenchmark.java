@@ -0,0 +1,56 @@
+package benchmarks;
+
+import core.GameBoard;
+import core.settings.BoardStorageMode;
+import core.settings.Difficulty;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures creating a game board, and the first click on it. The first click places the bombs
+ * and then flood fills from the clicked tile, so the time spent in the flood fill is
+ * {@link #firstClick()} minus {@link #construct()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBoardBenchmark {
+
+  @Param({ "EASY", "HARD", "CUSTOM_100x100_1500", "CUSTOM_1000x1000_150000" })
+  public String difficultyName;
+
+  @Param({ "TILES", "PACKED" })
+  public BoardStorageMode storageMode;
+
+  private Difficulty difficulty;
+  private long seed;
+
+  @Setup
+  public void setUp() {
+    difficulty = Difficulty.fromName(difficultyName);
+  }
+
+  @Benchmark
+  public GameBoard construct() {
+    return new GameBoard(difficulty, storageMode, seed++);
+  }
+
+  @Benchmark
+  public int[] firstClick() {
+    GameBoard gameBoard = new GameBoard(difficulty, storageMode, seed++);
+    return gameBoard.tileClicked(difficulty.getGridWidth() / 2, difficulty.getGridHeight() / 2);
+  }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import core.GameEngine;
+import core.Tile;
+import core.TileReadable;
+import core.settings.Difficulty;
+import core.settings.SettingsManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the space bar click, which reveals the neighbors of a revealed tile once the
+ * right number of flags are placed around it.
+ *
+ * <p>The click changes the board, so a new game is set up before every single call. JMH warns
+ * that this adds some overhead of its own for very short calls, which should be kept in mind
+ * when comparing the smallest boards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEngineBenchmark {
+
+  @Param({ "EASY", "HARD", "CUSTOM_200x200_6000" })
+  public String difficultyName;
+
+  private GameEngine gameEngine;
+  private int[] target;
+  private long seed;
+
+  /**
+   * Starts a new game, and flags the bombs around a revealed number which still has hidden
+   * neighbors, so that the space bar click has something to reveal.
+   */
+  @Setup(Level.Invocation)
+  public void setUp() {
+    if (gameEngine == null) {
+      SettingsManager.setGameDifficulty(Difficulty.fromName(difficultyName));
+      gameEngine = new GameEngine();
+    }
+
+    Difficulty difficulty = SettingsManager.getGameDifficulty();
+    target = null;
+    while (target == null) {
+      gameEngine.resetGame(seed++);
+      gameEngine.handleLeftClick(difficulty.getGridWidth() / 2, difficulty.getGridHeight() / 2);
+      target = findTarget(difficulty);
+    }
+
+    for (Tile neighbor : gameEngine.getNeighborTiles(target[0], target[1])) {
+      if (neighbor.isBomb()) {
+        gameEngine.handleRightClick(neighbor.getX(), neighbor.getY());
+      }
+    }
+  }
+
+  @Benchmark
+  public int[] spaceBarClick() {
+    gameEngine.handleSpaceBarClick(target[0], target[1]);
+    return gameEngine.getLatestUpdatedIndexes();
+  }
+
+  private int[] findTarget(Difficulty difficulty) {
+    for (int y = 0; y < difficulty.getGridHeight(); y++) {
+      for (int x = 0; x < difficulty.getGridWidth(); x++) {
+        TileReadable tile = gameEngine.getTile(x, y);
+        if (tile.isRevealed() && tile.hasAdjacentBomb() && hasHiddenSafeNeighbor(x, y)) {
+          return new int[] { x, y };
+        }
+      }
+    }
+    return null;
+  }
+
+  private boolean hasHiddenSafeNeighbor(int x, int y) {
+    List<Tile> neighbors = gameEngine.getNeighborTiles(x, y);
+    return neighbors.stream().anyMatch(tile -> !tile.isRevealed() && !tile.isBomb());
+  }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import core.JsonCodec;
+import core.UserScore;
+import core.savehandler.BinaryHighscoreFile;
+import core.savehandler.HighscoreFileManager;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading and writing highscore files of different sizes, both in the JSON format and in
+ * the {@link BinaryHighscoreFile} format. The files are temporary files, so the real highscore
+ * files in appdata are never touched.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighscoreFileBenchmark {
+
+  private static final String[] DIFFICULTIES = { "EASY", "MEDIUM", "HARD" };
+
+  @Param({ "10", "1000", "100000" })
+  public int numScores;
+
+  private File file;
+  private File binaryFile;
+  private final UserScore newScore = new UserScore("benchmark", 42, "2023-11-01", "HARD");
+
+  /**
+   * Fills a temporary file with the given number of scores. This is done again before every
+   * iteration, since every write makes the file one score larger.
+
+   * @throws IOException if the temporary file cannot be written
+   */
+  @Setup(Level.Iteration)
+  public void setUp() throws IOException {
+    if (file == null) {
+      file = File.createTempFile("highscore", ".json");
+      binaryFile = File.createTempFile("highscore", ".bin");
+    }
+
+    List<UserScore> userScores = new ArrayList<>(numScores);
+    for (int i = 0; i < numScores; i++) {
+      userScores.add(new UserScore("player" + i, i, "2023-10-15", DIFFICULTIES[i % 3]));
+    }
+    JsonCodec.scoreListWriter().writeValue(file, userScores);
+    BinaryHighscoreFile.write(userScores, binaryFile);
+  }
+
+  @TearDown
+  public void tearDown() {
+    file.delete();
+    binaryFile.delete();
+  }
+
+  @Benchmark
+  public List<UserScore> read() {
+    return HighscoreFileManager.readFromHighscore(file);
+  }
+
+  @Benchmark
+  public List<UserScore> readBinary() throws IOException {
+    return BinaryHighscoreFile.read(binaryFile);
+  }
+
+  /**
+   * Finds the best score for one difficulty, straight from the mapped records, without creating
+   * any scores.
+
+   * @return the best score for HARD
+   * @throws IOException if the file cannot be read
+   */
+  @Benchmark
+  public int scanBinary() throws IOException {
+    BinaryHighscoreFile binary = BinaryHighscoreFile.open(binaryFile);
+    int best = Integer.MAX_VALUE;
+    for (int i = 0; i < binary.size(); i++) {
+      if ("HARD".equals(binary.getDifficulty(i))) {
+        best = Math.min(best, binary.getScore(i));
+      }
+    }
+    return best;
+  }
+
+  @Benchmark
+  public void write() {
+    HighscoreFileManager.writeToHighscore(newScore, file);
+  }
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import core.UserScore;
+import core.savehandler.HighscoreLog;
+import core.savehandler.HighscoreWriteQueue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many highscores per second many threads can submit through a
+ * {@link HighscoreWriteQueue}, when each submitter waits for its score to be written.
+ * The modes are:
+ *
+ * <ul>
+ *   <li>{@code plain}: batches are written right away, without fsync.</li>
+ *   <li>{@code fsync}: every score is written and synced on its own.</li>
+ *   <li>{@code group}: scores are collected for 2 ms and synced together.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class HighscoreWriteQueueBenchmark {
+
+  @Param({ "plain", "fsync", "group" })
+  public String mode;
+
+  private Path directory;
+  private HighscoreLog highscoreLog;
+  private HighscoreWriteQueue writeQueue;
+  private final UserScore newScore = new UserScore("benchmark", 42, "2023-11-01", "HARD");
+
+  /**
+   * Creates the queue and an empty log in a temporary directory.
+
+   * @throws IOException if the temporary directory cannot be created
+   */
+  @Setup
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("highscore");
+    highscoreLog = new HighscoreLog(directory.resolve("highscore.json").toFile(),
+        directory.resolve("highscore.log").toFile());
+    writeQueue = switch (mode) {
+      case "fsync" -> new HighscoreWriteQueue(highscoreLog, scores -> { }, 1, Duration.ZERO);
+      case "group" -> new HighscoreWriteQueue(highscoreLog, scores -> { },
+          HighscoreWriteQueue.DEFAULT_MAX_BATCH_SIZE, Duration.ofMillis(2));
+      default -> new HighscoreWriteQueue(highscoreLog, scores -> { },
+          HighscoreWriteQueue.DEFAULT_MAX_BATCH_SIZE);
+    };
+  }
+
+  /**
+   * Stops the queue and removes the temporary files.
+   */
+  @TearDown
+  public void tearDown() {
+    writeQueue.close();
+    highscoreLog.close();
+    File[] files = directory.toFile().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.toFile().delete();
+  }
+
+  @Benchmark
+  public void submit() {
+    writeQueue.submit(newScore).join();
+  }
+}
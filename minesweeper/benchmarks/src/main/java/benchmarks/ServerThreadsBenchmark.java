@@ -0,0 +1,95 @@
+package benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import springboot.PerTaskThreadPool;
+import springboot.ServerThreads;
+
+/**
+ * Compares the two ways the server can handle requests, see {@link ServerThreads}: Jetty's pool
+ * of at most 200 threads, and a thread per request. 400 clients send requests at the same time,
+ * and every request blocks for a few milliseconds, like a request which waits for the disk or
+ * for a slow client.
+ *
+ * <p>The throughput is how many requests are handled per millisecond. The sample time shows the
+ * latency of single requests, with its percentiles, so the p99 can be compared. With the pool,
+ * the clients beyond the first 200 have to wait in a queue until a thread is free.
+ *
+ * <p>On Java 21 or newer {@code virtual} uses virtual threads, and otherwise a new platform
+ * thread for every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(400)
+@Fork(1)
+public class ServerThreadsBenchmark {
+
+  @Param({ "pool", "virtual" })
+  public String threads;
+
+  @Param({ "5" })
+  public int blockMillis;
+
+  private ThreadPool threadPool;
+
+  /**
+   * Starts the thread pool.
+
+   * @throws Exception if the pool could not be started
+   */
+  @Setup
+  public void setUp() throws Exception {
+    // Jetty's pool is used with its defaults, which is what the server uses.
+    threadPool = "virtual".equals(threads)
+        ? new PerTaskThreadPool("benchmark-") : new QueuedThreadPool();
+    ((LifeCycle) threadPool).start();
+  }
+
+  /**
+   * Stops the thread pool.
+
+   * @throws Exception if the pool could not be stopped
+   */
+  @TearDown
+  public void tearDown() throws Exception {
+    ((LifeCycle) threadPool).stop();
+  }
+
+  /**
+   * Hands a request to the pool, and waits until it has been handled.
+
+   * @throws InterruptedException if the client is interrupted
+   */
+  @Benchmark
+  public void request() throws InterruptedException {
+    CountDownLatch handled = new CountDownLatch(1);
+    threadPool.execute(() -> {
+      try {
+        Thread.sleep(blockMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      handled.countDown();
+    });
+    handled.await();
+  }
+}
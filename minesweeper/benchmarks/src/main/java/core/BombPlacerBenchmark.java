@@ -0,0 +1,42 @@
+package core;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures placing the bombs on its own, without creating a board. This benchmark is in the
+ * core package, because {@link BombPlacer} is not visible outside of it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BombPlacerBenchmark {
+
+  @Param({ "14", "100", "1000" })
+  public int size;
+
+  // The share of the tiles which are bombs. Boards up to 0.25 use the sparse shuffle,
+  // denser boards the dense one.
+  @Param({ "0.05", "0.2", "0.9" })
+  public double density;
+
+  private long seed;
+
+  @Benchmark
+  public int[] placeFromSeed() {
+    int numBombs = (int) ((size * size - 9) * density);
+    return BombPlacer.placeFromSeed(size, size, numBombs, size / 2, size / 2, seed++);
+  }
+}
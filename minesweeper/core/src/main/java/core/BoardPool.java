@@ -0,0 +1,221 @@
+package core;
+
+import core.settings.Difficulty;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps bomb layouts ready, so that starting a game does not have to wait for bombs
+ * to be placed.
+ *
+ * <p>Layouts are generated in the background on a fork-join pool, and are kept apart by
+ * board size and by the class of the first click (see {@link StartPosition}). When a game takes
+ * a layout, it is moved to fit the real first click. Whenever a queue of layouts runs low,
+ * it is filled up again in the background. If a queue is empty, the layout is generated right
+ * away instead, so taking a layout never blocks.
+ *
+ * <p>A pool can be shared by any number of games on any number of threads.
+ */
+public class BoardPool implements AutoCloseable {
+
+  private final ForkJoinPool generators;
+  private final int layoutsPerQueue;
+  private final Map<Key, Slot> slots = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a pool which keeps the given number of layouts ready for every
+   * combination of board size and first click class.
+
+   * @param layoutsPerQueue how many layouts to keep ready in every queue
+   */
+  public BoardPool(int layoutsPerQueue) {
+    this(layoutsPerQueue, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a pool which keeps the given number of layouts ready for every
+   * combination of board size and first click class.
+
+   * @param layoutsPerQueue how many layouts to keep ready in every queue
+   * @param parallelism how many threads are used to generate layouts
+   */
+  public BoardPool(int layoutsPerQueue, int parallelism) {
+    if (layoutsPerQueue < 1) {
+      throw new IllegalArgumentException("A pool must keep at least one layout ready");
+    }
+    this.layoutsPerQueue = layoutsPerQueue;
+    this.generators = new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Starts generating layouts for every first click class of a difficulty in the background.
+   * Call this ahead of time, for example on startup, to have layouts ready for the first games.
+
+   * @param difficulty the difficulty to generate layouts for
+   */
+  public void prefill(Difficulty difficulty) {
+    for (StartPosition startPosition : StartPosition.values()) {
+      refill(getSlot(difficulty, startPosition));
+    }
+  }
+
+  /**
+   * Returns the number of layouts ready for the given difficulty and first click.
+
+   * @param difficulty the difficulty of the board
+   * @param x the x coordinate of the first click
+   * @param y the y coordinate of the first click
+   * @return the number of layouts which are ready
+   */
+  public int getReadyLayouts(Difficulty difficulty, int x, int y) {
+    if (!StartPosition.supports(difficulty.getGridWidth(), difficulty.getGridHeight())) {
+      return 0;
+    }
+    StartPosition startPosition = StartPosition.of(x, y, difficulty.getGridWidth(),
+        difficulty.getGridHeight());
+    return getSlot(difficulty, startPosition).size.get();
+  }
+
+  /**
+   * Takes a layout for a board with the given difficulty and first click.
+
+   * @param difficulty the difficulty of the board
+   * @param x the x coordinate of the first click
+   * @param y the y coordinate of the first click
+   * @return the layout, already moved to fit the first click
+   */
+  BombLayout take(Difficulty difficulty, int x, int y) {
+    int width = difficulty.getGridWidth();
+    int height = difficulty.getGridHeight();
+    if (!StartPosition.supports(width, height)) {
+      long seed = ThreadLocalRandom.current().nextLong();
+      return new BombLayout(seed, BombPlacer.placeFromSeed(width, height,
+          difficulty.getNumBombs(), x, y, seed));
+    }
+
+    StartPosition startPosition = StartPosition.of(x, y, width, height);
+    Slot slot = getSlot(difficulty, startPosition);
+    BombLayout layout = slot.layouts.poll();
+    if (layout != null) {
+      slot.size.decrementAndGet();
+    } else {
+      layout = generate(slot.key);
+    }
+
+    if (slot.size.get() <= layoutsPerQueue / 2) {
+      refill(slot);
+    }
+
+    startPosition.moveToClick(layout.getBombIndexes(), x, y, width, height);
+    return layout;
+  }
+
+  /**
+   * Waits until no layouts are being generated in the background, so that tests can check the
+   * queues without polling them.
+
+   * @param timeout how long to wait at most
+   * @param unit the unit of the timeout
+   * @return true if every refill had finished before the timeout
+   */
+  boolean awaitRefills(long timeout, TimeUnit unit) {
+    return generators.awaitQuiescence(timeout, unit);
+  }
+
+  /**
+   * Stops generating layouts, and waits a little while for running generators to finish.
+   */
+  @Override
+  public void close() {
+    generators.shutdownNow();
+    try {
+      generators.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Slot getSlot(Difficulty difficulty, StartPosition startPosition) {
+    Key key = new Key(difficulty.getGridWidth(), difficulty.getGridHeight(),
+        difficulty.getNumBombs(), startPosition);
+    return slots.computeIfAbsent(key, Slot::new);
+  }
+
+  private void refill(Slot slot) {
+    if (generators.isShutdown() || !slot.refilling.compareAndSet(false, true)) {
+      return;
+    }
+
+    generators.execute(() -> {
+      try {
+        int missing = layoutsPerQueue - slot.size.get();
+        // A parallel stream started from inside a fork-join pool runs in that same pool.
+        IntStream.range(0, Math.max(missing, 0)).parallel().forEach(i -> {
+          slot.layouts.add(generate(slot.key));
+          slot.size.incrementAndGet();
+        });
+      } finally {
+        slot.refilling.set(false);
+      }
+    });
+  }
+
+  private static BombLayout generate(Key key) {
+    long seed = ThreadLocalRandom.current().nextLong();
+    int[] bombs = BombPlacer.placeFromSeed(key.width, key.height, key.numBombs,
+        key.startPosition.getCanonicalX(), key.startPosition.getCanonicalY(), seed);
+    return new BombLayout(seed, bombs);
+  }
+
+  /**
+   * A queue of ready layouts, for one board size and one first click class.
+   */
+  private static final class Slot {
+    private final Key key;
+    private final Queue<BombLayout> layouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private Slot(Key key) {
+      this.key = key;
+    }
+  }
+
+  private static final class Key {
+    private final int width;
+    private final int height;
+    private final int numBombs;
+    private final StartPosition startPosition;
+
+    private Key(int width, int height, int numBombs, StartPosition startPosition) {
+      this.width = width;
+      this.height = height;
+      this.numBombs = numBombs;
+      this.startPosition = startPosition;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return width == key.width && height == key.height && numBombs == key.numBombs
+          && startPosition == key.startPosition;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(width, height, numBombs, startPosition);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package core;
+
+/**
+ * This interface describes where the GameBoard keeps the state of its cells.
+ * Every cell is addressed by its index, which is {@code y * width + x}.
+ *
+ * <p>The GameBoard only talks to its cells through this interface, which makes it
+ * possible to swap between one Tile object per cell and a compact primitive representation.
+
+ * @see BoardStorageMode
+ */
+interface BoardStorage {
+
+  /**
+   * Returns a Tile for the cell at the given index. Implementations may create a new
+   * view object on every call, so the returned Tile should not be compared by identity.
+
+   * @param index the index of the cell
+   * @return a Tile reading and writing the state of the cell
+   */
+  Tile getTile(int index);
+
+  boolean isBomb(int index);
+
+  boolean isRevealed(int index);
+
+  boolean isFlagged(int index);
+
+  int getNumBombsAround(int index);
+
+  void makeBomb(int index);
+
+  void incrementNumBombsAround(int index);
+
+  void reveal(int index);
+}
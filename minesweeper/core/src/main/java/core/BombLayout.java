@@ -0,0 +1,23 @@
+package core;
+
+/**
+ * The bombs of a board, together with the seed they were generated from.
+ */
+final class BombLayout {
+
+  private final long seed;
+  private final int[] bombIndexes;
+
+  BombLayout(long seed, int[] bombIndexes) {
+    this.seed = seed;
+    this.bombIndexes = bombIndexes;
+  }
+
+  long getSeed() {
+    return seed;
+  }
+
+  int[] getBombIndexes() {
+    return bombIndexes;
+  }
+}
@@ -0,0 +1,140 @@
+package core;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses where the bombs go, using a partial Fisher–Yates shuffle over the tiles which are
+ * allowed to hold a bomb (every tile except the first clicked tile and its neighbors).
+ *
+ * <p>Picking random tiles until enough free ones have been found gets very slow when almost
+ * every tile should be a bomb. The shuffle instead draws each bomb exactly once from the tiles
+ * which are still free, so it always needs numBombs draws, no matter how dense the board is.
+ */
+final class BombPlacer {
+
+  // Above this share of bombs it is cheaper to shuffle a plain array of all the candidates,
+  // below it only the swapped positions are remembered, so that huge sparse boards stay cheap.
+  private static final double DENSE_THRESHOLD = 0.25;
+
+  private BombPlacer() {
+  }
+
+  /**
+   * Chooses numBombs distinct tiles, none of them on or next to the starting tile.
+
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param numBombs the number of bombs to place
+   * @param startX the x coordinate of the first clicked tile
+   * @param startY the y coordinate of the first clicked tile
+   * @param random the source of randomness
+   * @return the indexes ({@code y * width + x}) of the bombs
+   * @throws IllegalArgumentException if there is not room for all the bombs
+   */
+  static int[] place(int width, int height, int numBombs, int startX, int startY,
+      SplittableRandom random) {
+    int[] safeTiles = safeTiles(width, height, startX, startY);
+    int candidates = width * height - safeTiles.length;
+    if (numBombs > candidates) {
+      throw new IllegalArgumentException("Cannot place " + numBombs + " bombs, there is only room"
+          + " for " + candidates + " on a " + width + "x" + height + " board");
+    }
+
+    int[] bombs = numBombs >= candidates * DENSE_THRESHOLD
+        ? shuffleDense(candidates, numBombs, random)
+        : shuffleSparse(candidates, numBombs, random);
+
+    for (int i = 0; i < bombs.length; i++) {
+      bombs[i] = candidateToIndex(bombs[i], safeTiles);
+    }
+    return bombs;
+  }
+
+  /**
+   * Places the bombs for a board generated from the given seed. The bombs are placed for the
+   * canonical tile of the first click's {@link StartPosition}, and then moved to the real first
+   * click, which is exactly what happens to layouts taken from a {@link BoardPool}.
+   * So the same seed and first click always give the same board, pooled or not.
+
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param numBombs the number of bombs to place
+   * @param startX the x coordinate of the first clicked tile
+   * @param startY the y coordinate of the first clicked tile
+   * @param seed the seed of the board
+   * @return the indexes ({@code y * width + x}) of the bombs
+   */
+  static int[] placeFromSeed(int width, int height, int numBombs, int startX, int startY,
+      long seed) {
+    if (!StartPosition.supports(width, height)) {
+      return place(width, height, numBombs, startX, startY, new SplittableRandom(seed));
+    }
+
+    StartPosition startPosition = StartPosition.of(startX, startY, width, height);
+    int[] bombs = place(width, height, numBombs, startPosition.getCanonicalX(),
+        startPosition.getCanonicalY(), new SplittableRandom(seed));
+    startPosition.moveToClick(bombs, startX, startY, width, height);
+    return bombs;
+  }
+
+  static int[] shuffleDense(int candidates, int numBombs, SplittableRandom random) {
+    int[] deck = new int[candidates];
+    for (int i = 0; i < candidates; i++) {
+      deck[i] = i;
+    }
+
+    int[] drawn = new int[numBombs];
+    for (int i = 0; i < numBombs; i++) {
+      int j = i + random.nextInt(candidates - i);
+      drawn[i] = deck[j];
+      deck[j] = deck[i];
+    }
+    return drawn;
+  }
+
+  /**
+   * The same shuffle as {@link #shuffleDense}, but the deck is only virtual: a position which has
+   * never been swapped holds its own number, so only the swapped positions are stored, in a map
+   * of primitive ints so that no position is boxed. Both shuffles draw the same numbers from the
+   * random source, so they choose the same bombs.
+   */
+  static int[] shuffleSparse(int candidates, int numBombs, SplittableRandom random) {
+    IntIntMap swapped = new IntIntMap(numBombs);
+
+    int[] drawn = new int[numBombs];
+    for (int i = 0; i < numBombs; i++) {
+      int j = i + random.nextInt(candidates - i);
+      drawn[i] = swapped.getOrDefault(j, j);
+      swapped.put(j, swapped.getOrDefault(i, i));
+    }
+    return drawn;
+  }
+
+  /**
+   * Returns the indexes of the starting tile and its neighbors, sorted from low to high.
+   */
+  private static int[] safeTiles(int width, int height, int startX, int startY) {
+    IntList safeTiles = new IntList(9);
+    for (int y = Math.max(startY - 1, 0); y <= Math.min(startY + 1, height - 1); y++) {
+      for (int x = Math.max(startX - 1, 0); x <= Math.min(startX + 1, width - 1); x++) {
+        safeTiles.add(y * width + x);
+      }
+    }
+    return safeTiles.toArray();
+  }
+
+  /**
+   * Converts the number of a candidate (0 is the first tile which may hold a bomb, 1 the second,
+   * and so on) to the index of the tile on the board, by skipping past the safe tiles.
+   */
+  private static int candidateToIndex(int candidate, int[] safeTiles) {
+    int index = candidate;
+    for (int safeTile : safeTiles) {
+      if (safeTile > index) {
+        break;
+      }
+      index++;
+    }
+    return index;
+  }
+}
@@ -0,0 +1,104 @@
+package core;
+
+import java.util.BitSet;
+
+/**
+ * A square part of an {@link EndlessBoard}, {@link #SIZE} tiles wide and high.
+ *
+ * <p>What the player has done to the chunk (revealed tiles and flags) is always kept.
+ * Where the bombs are, and the number of bombs around every tile, can always be worked out again
+ * from the seed of the board, so they are only kept while the chunk is loaded.
+ */
+final class Chunk {
+
+  static final int SIZE = 32;
+
+  private final BitSet revealed = new BitSet(SIZE * SIZE);
+  private final BitSet flagged = new BitSet(SIZE * SIZE);
+  private BitSet bombs;
+  private byte[] numBombsAround;
+
+  /**
+   * Works out the bombs of the chunk, and the number of bombs around each of its tiles.
+
+   * @param board the board the chunk belongs to
+   * @param originX the x coordinate of the top left tile of the chunk
+   * @param originY the y coordinate of the top left tile of the chunk
+   */
+  void load(EndlessBoard board, int originX, int originY) {
+    // The bombs of the surrounding ring of tiles are needed for the numbers along the edges,
+    // so they are looked up once here instead of up to eight times per tile.
+    int paddedSize = SIZE + 2;
+    boolean[] padded = new boolean[paddedSize * paddedSize];
+    for (int y = 0; y < paddedSize; y++) {
+      for (int x = 0; x < paddedSize; x++) {
+        padded[y * paddedSize + x] = board.isBomb(originX + x - 1, originY + y - 1);
+      }
+    }
+
+    bombs = new BitSet(SIZE * SIZE);
+    numBombsAround = new byte[SIZE * SIZE];
+    for (int y = 0; y < SIZE; y++) {
+      for (int x = 0; x < SIZE; x++) {
+        int center = (y + 1) * paddedSize + x + 1;
+        if (padded[center]) {
+          bombs.set(y * SIZE + x);
+        }
+
+        int count = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+          for (int dx = -1; dx <= 1; dx++) {
+            if ((dx != 0 || dy != 0) && padded[center + dy * paddedSize + dx]) {
+              count++;
+            }
+          }
+        }
+        numBombsAround[y * SIZE + x] = (byte) count;
+      }
+    }
+  }
+
+  /**
+   * Forgets the bombs and numbers, keeping only what the player has done.
+   */
+  void unload() {
+    bombs = null;
+    numBombsAround = null;
+  }
+
+  boolean isLoaded() {
+    return bombs != null;
+  }
+
+  /**
+   * Returns true if the player has revealed or flagged anything in this chunk,
+   * which means that it must be kept even when it is unloaded.
+   */
+  boolean hasState() {
+    return !revealed.isEmpty() || !flagged.isEmpty();
+  }
+
+  boolean isBomb(int index) {
+    return bombs.get(index);
+  }
+
+  int getNumBombsAround(int index) {
+    return numBombsAround[index];
+  }
+
+  boolean isRevealed(int index) {
+    return revealed.get(index);
+  }
+
+  boolean isFlagged(int index) {
+    return flagged.get(index);
+  }
+
+  void reveal(int index) {
+    revealed.set(index);
+  }
+
+  void toggleFlag(int index) {
+    flagged.flip(index);
+  }
+}
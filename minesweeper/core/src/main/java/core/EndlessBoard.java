@@ -0,0 +1,278 @@
+package core;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A board without edges. The world is split into chunks of 32x32 tiles, and whether a tile is a
+ * bomb is worked out from the seed of the board and the coordinates of the tile alone. So no
+ * tiles have to be created up front, and two boards with the same seed and bomb density are
+ * always the same world.
+ *
+ * <p>A chunk is only created when a reveal or a flag touches it. Only a limited number of chunks
+ * are kept loaded (with their bombs and numbers worked out). When more are needed, the chunk
+ * which has been used least recently, and so is usually the one furthest from where the player
+ * is, is unloaded, and only the revealed tiles and flags in it are kept. Chunks the player has
+ * not changed are dropped altogether. The memory used therefore grows with the explored area,
+ * not with the size of the world.
+ *
+ * <p>The tile (0, 0) and its neighbors are never bombs, so a game always starts with a click
+ * there. Tiles are addressed with int coordinates, which may be negative.
+ *
+ * <p>This is the board of an endless mode only. {@link GameEngine}, the UI and the REST server do
+ * not create endless boards yet.
+ */
+public class EndlessBoard {
+
+  /**
+   * Below this density the areas without bombs around them can connect into areas without end,
+   * and a single reveal would never stop.
+   */
+  public static final double MIN_BOMB_DENSITY = 0.12;
+  public static final double MAX_BOMB_DENSITY = 0.9;
+  public static final int DEFAULT_LOADED_CHUNKS = 256;
+
+  private final long seed;
+  private final double bombDensity;
+  private final long bombThreshold;
+  private final Map<Long, Chunk> chunks = new HashMap<>();
+  private final Map<Long, Chunk> loadedChunks;
+  private final IntList queueX = new IntList();
+  private final IntList queueY = new IntList();
+  private boolean isGameLost;
+  private long revealedTiles;
+
+  /**
+   * Creates an endless board which keeps up to {@value #DEFAULT_LOADED_CHUNKS} chunks loaded.
+
+   * @param seed the seed which decides where the bombs are
+   * @param bombDensity the share of tiles which are bombs
+   * @see #EndlessBoard(long, double, int)
+   */
+  public EndlessBoard(long seed, double bombDensity) {
+    this(seed, bombDensity, DEFAULT_LOADED_CHUNKS);
+  }
+
+  /**
+   * Creates an endless board.
+
+   * @param seed the seed which decides where the bombs are
+   * @param bombDensity the share of tiles which are bombs, between {@value #MIN_BOMB_DENSITY}
+   *     and {@value #MAX_BOMB_DENSITY}
+   * @param maxLoadedChunks how many chunks are kept loaded at most
+   * @throws IllegalArgumentException if the density is out of range,
+   *     or if maxLoadedChunks is less than 1
+   */
+  public EndlessBoard(long seed, double bombDensity, int maxLoadedChunks) {
+    if (!(bombDensity >= MIN_BOMB_DENSITY && bombDensity <= MAX_BOMB_DENSITY)) {
+      throw new IllegalArgumentException("The bomb density must be between " + MIN_BOMB_DENSITY
+          + " and " + MAX_BOMB_DENSITY + ", was " + bombDensity);
+    }
+    if (maxLoadedChunks < 1) {
+      throw new IllegalArgumentException("At least one chunk must be kept loaded");
+    }
+
+    this.seed = seed;
+    this.bombDensity = bombDensity;
+    this.bombThreshold = (long) (bombDensity * (1L << 53));
+    this.loadedChunks = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+        if (size() <= maxLoadedChunks) {
+          return false;
+        }
+        eldest.getValue().unload();
+        if (!eldest.getValue().hasState()) {
+          chunks.remove(eldest.getKey());
+        }
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns true if the tile is a bomb. This does not load any chunks.
+
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return true if the tile is a bomb
+   */
+  public boolean isBomb(int x, int y) {
+    if (Math.abs((long) x) <= 1 && Math.abs((long) y) <= 1) {
+      return false;
+    }
+    return (mix(seed ^ mix(((long) x << 32) ^ (y & 0xffffffffL))) >>> 11) < bombThreshold;
+  }
+
+  public int getNumBombsAround(int x, int y) {
+    return loadChunk(x, y).getNumBombsAround(localIndex(x, y));
+  }
+
+  /**
+   * Returns true if the tile has been revealed. This does not load any chunks.
+
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return true if the tile has been revealed
+   */
+  public boolean isRevealed(int x, int y) {
+    Chunk chunk = chunks.get(chunkKey(x, y));
+    return chunk != null && chunk.isRevealed(localIndex(x, y));
+  }
+
+  /**
+   * Returns true if the tile has been flagged. This does not load any chunks.
+
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return true if the tile has been flagged
+   */
+  public boolean isFlagged(int x, int y) {
+    Chunk chunk = chunks.get(chunkKey(x, y));
+    return chunk != null && chunk.isFlagged(localIndex(x, y));
+  }
+
+  /**
+   * Flags the tile, or removes the flag if it is already flagged.
+   * Revealed tiles cannot be flagged, so nothing happens to them.
+
+   * @param x the x coordinate
+   * @param y the y coordinate
+   */
+  public void toggleFlag(int x, int y) {
+    Chunk chunk = loadChunk(x, y);
+    int index = localIndex(x, y);
+    if (!isGameLost && !chunk.isRevealed(index)) {
+      chunk.toggleFlag(index);
+    }
+  }
+
+  /**
+   * Reveals the tile, and keeps revealing around every revealed tile with no bombs around it,
+   * like on a normal board. Revealing a bomb loses the game, and after that nothing more
+   * can be revealed. Flagged and already revealed tiles are left alone.
+
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return the number of tiles which were revealed
+   */
+  public int reveal(int x, int y) {
+    Chunk chunk = loadChunk(x, y);
+    int index = localIndex(x, y);
+    if (isGameLost || chunk.isRevealed(index) || chunk.isFlagged(index)) {
+      return 0;
+    }
+
+    chunk.reveal(index);
+    revealedTiles++;
+    if (chunk.isBomb(index)) {
+      isGameLost = true;
+      return 1;
+    }
+
+    // The same iterative fill as FloodFill, but the queue holds coordinates, since there
+    // is no width to turn them into indexes. Tiles are revealed as they are queued, so the
+    // revealed bits also serve as the visited set.
+    int opened = 1;
+    queueX.clear();
+    queueY.clear();
+    if (chunk.getNumBombsAround(index) == 0) {
+      queueX.add(x);
+      queueY.add(y);
+    }
+
+    for (int head = 0; head < queueX.size(); head++) {
+      int tileX = queueX.get(head);
+      int tileY = queueY.get(head);
+      for (int k = 0; k < Neighbors.MAX; k++) {
+        int neighborX = tileX + Neighbors.DX[k];
+        int neighborY = tileY + Neighbors.DY[k];
+        // A chunk may have been unloaded by an earlier step, so it is looked up again every time.
+        Chunk neighborChunk = loadChunk(neighborX, neighborY);
+        int neighbor = localIndex(neighborX, neighborY);
+        if (neighborChunk.isRevealed(neighbor) || neighborChunk.isFlagged(neighbor)) {
+          continue;
+        }
+
+        neighborChunk.reveal(neighbor);
+        opened++;
+        if (neighborChunk.getNumBombsAround(neighbor) == 0) {
+          queueX.add(neighborX);
+          queueY.add(neighborY);
+        }
+      }
+    }
+
+    revealedTiles += opened - 1;
+    return opened;
+  }
+
+  public boolean isGameLost() {
+    return isGameLost;
+  }
+
+  public long getRevealedTiles() {
+    return revealedTiles;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public double getBombDensity() {
+    return bombDensity;
+  }
+
+  /**
+   * Returns the number of chunks which have their bombs and numbers worked out.
+
+   * @return the number of loaded chunks
+   */
+  public int getLoadedChunks() {
+    return loadedChunks.size();
+  }
+
+  /**
+   * Returns the number of chunks which are kept, loaded or not.
+
+   * @return the number of chunks in memory
+   */
+  public int getStoredChunks() {
+    return chunks.size();
+  }
+
+  private Chunk loadChunk(int x, int y) {
+    long key = chunkKey(x, y);
+    Chunk chunk = loadedChunks.get(key);
+    if (chunk != null) {
+      return chunk;
+    }
+
+    chunk = chunks.computeIfAbsent(key, k -> new Chunk());
+    chunk.load(this, Math.floorDiv(x, Chunk.SIZE) * Chunk.SIZE,
+        Math.floorDiv(y, Chunk.SIZE) * Chunk.SIZE);
+    loadedChunks.put(key, chunk);
+    return chunk;
+  }
+
+  private static long chunkKey(int x, int y) {
+    long chunkX = Math.floorDiv(x, Chunk.SIZE);
+    long chunkY = Math.floorDiv(y, Chunk.SIZE);
+    return (chunkX << 32) ^ (chunkY & 0xffffffffL);
+  }
+
+  private static int localIndex(int x, int y) {
+    return Math.floorMod(y, Chunk.SIZE) * Chunk.SIZE + Math.floorMod(x, Chunk.SIZE);
+  }
+
+  /**
+   * The finalizer of SplitMix64, which spreads the bits of the input over the whole output,
+   * so neighboring tiles get unrelated values.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,85 @@
+package core;
+
+import java.util.BitSet;
+
+/**
+ * Reveals a tile, and keeps revealing around every revealed tile which has no bombs around it.
+ *
+ * <p>This used to be done with recursion, one call per zero-tile, which overflows the stack
+ * when a large board has a large empty area. The flood fill here is iterative instead:
+ * tiles waiting to be expanded are kept in a primitive int queue, and a visited bitmap makes sure
+ * that every tile is looked at no more than once per fill. The queue, the bitmap and the list of
+ * opened tiles are reused between fills, so a click does not allocate once they have grown.
+ *
+ * <p>Every tile which is marked as visited is also listed, and only those bits are cleared after
+ * the fill. Clearing the whole bitmap would cost time for every tile on the board, even when a
+ * click only opens a single tile.
+ */
+class FloodFill {
+
+  private final int width;
+  private final int height;
+  private final IntList queue = new IntList();
+  private final IntList opened = new IntList();
+  private final IntList marked = new IntList();
+  private final BitSet visited;
+  private final int[] neighbors = new int[Neighbors.MAX];
+
+  FloodFill(int width, int height) {
+    this.width = width;
+    this.height = height;
+    this.visited = new BitSet(width * height);
+  }
+
+  /**
+   * Reveals the tile at the given index, and all tiles connected to it through zero-tiles.
+   * Flagged and already revealed tiles are left alone. The start tile must not be a bomb.
+
+   * @param storage the storage containing the tiles
+   * @param start the index of the first tile to reveal
+   * @return the indexes of all the tiles which were revealed, in the order they were revealed
+   */
+  int[] reveal(BoardStorage storage, int start) {
+    queue.clear();
+    opened.clear();
+
+    mark(start);
+    open(storage, start);
+
+    // The queue is consumed from the front by moving 'head', instead of removing elements.
+    for (int head = 0; head < queue.size(); head++) {
+      int index = queue.get(head);
+      int count = Neighbors.fill(index % width, index / width, width, height, neighbors);
+      for (int k = 0; k < count; k++) {
+        int neighbor = neighbors[k];
+        if (visited.get(neighbor)) {
+          continue;
+        }
+        mark(neighbor);
+
+        if (!storage.isRevealed(neighbor) && !storage.isFlagged(neighbor)) {
+          open(storage, neighbor);
+        }
+      }
+    }
+
+    for (int i = 0; i < marked.size(); i++) {
+      visited.clear(marked.get(i));
+    }
+    marked.clear();
+    return opened.toArray();
+  }
+
+  private void mark(int index) {
+    visited.set(index);
+    marked.add(index);
+  }
+
+  private void open(BoardStorage storage, int index) {
+    storage.reveal(index);
+    opened.add(index);
+    if (storage.getNumBombsAround(index) == 0) {
+      queue.add(index);
+    }
+  }
+}
@@ -1,9 +1,10 @@
 package core;
 
-import core.settings.GameDifficulty;
+import core.settings.BoardStorageMode;
+import core.settings.Difficulty;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * This class represents the game board.
@@ -14,24 +15,87 @@ import java.util.Random;
 public class GameBoard {
 
   protected List<List<Tile>> board = new ArrayList<>();
+  private BoardStorage storage;
   private final int width;
   private final int height;
   private final int numBombs;
   private final int[] startingCoords;
   private boolean isGameLost;
-  private List<Tile> bombTiles = new ArrayList<>();
+  private int[] bombIndexes = new int[0];
+  private final FloodFill floodFill;
+  private final int[] neighborBuffer = new int[Neighbors.MAX];
   protected int tilesLeft;
   protected int flagsLeft;
-  private static Random random = new Random();
+  private long seed;
+  private final Difficulty settings;
+  private final BoardPool boardPool;
 
   /**
-   * Creates a new game board with the specified settings.
+   * Creates a new game board with the specified settings. Very large boards are packed,
+   * see {@link BoardStorageMode#forBoard(Difficulty)}.
 
    * @param settings The settings to use for the game board
-   *     There are three possible settings: EASY, MEDIUM and HARD
-   * @see GameDifficulty
+   *     This is one of EASY, MEDIUM and HARD, or a custom difficulty
+   * @see Difficulty
    */
-  public GameBoard(GameDifficulty settings) {
+  public GameBoard(Difficulty settings) {
+    this(settings, BoardStorageMode.forBoard(settings));
+  }
+
+  /**
+   * Creates a new game board with the specified settings, where the bombs are placed
+   * using the given seed. Two boards with the same settings and seed get exactly the same
+   * bombs, as long as the first click is made on the same tile.
+
+   * @param settings The settings to use for the game board
+   * @param seed The seed used when placing the bombs
+   */
+  public GameBoard(Difficulty settings, long seed) {
+    this(settings, BoardStorageMode.forBoard(settings), seed);
+  }
+
+  /**
+   * Creates a new game board with the specified settings and storage mode.
+
+   * @param settings The settings to use for the game board
+   * @param storageMode How the state of the tiles is stored. PACKED keeps everything in
+   *     primitive arrays, and only creates Tile objects when they are asked for.
+   * @see BoardStorageMode
+   */
+  public GameBoard(Difficulty settings, BoardStorageMode storageMode) {
+    this(settings, storageMode, ThreadLocalRandom.current().nextLong());
+  }
+
+  /**
+   * Creates a new game board with the specified settings, storage mode and seed.
+
+   * @param settings The settings to use for the game board
+   * @param storageMode How the state of the tiles is stored
+   * @param seed The seed used when placing the bombs
+   * @see #GameBoard(Difficulty, long)
+   */
+  public GameBoard(Difficulty settings, BoardStorageMode storageMode, long seed) {
+    this(settings, storageMode, seed, null);
+  }
+
+  /**
+   * Creates a new game board which takes its bombs from a pool of ready layouts,
+   * instead of placing them when the first click is made.
+
+   * @param settings The settings to use for the game board
+   * @param storageMode How the state of the tiles is stored
+   * @param boardPool The pool to take the bomb layout from
+   * @see BoardPool
+   */
+  public GameBoard(Difficulty settings, BoardStorageMode storageMode, BoardPool boardPool) {
+    this(settings, storageMode, 0, boardPool);
+  }
+
+  private GameBoard(Difficulty settings, BoardStorageMode storageMode, long seed,
+      BoardPool boardPool) {
+    this.settings = settings;
+    this.seed = seed;
+    this.boardPool = boardPool;
     this.height = settings.getGridHeight();
     this.width = settings.getGridWidth();
     this.numBombs = settings.getNumBombs();
@@ -39,8 +103,14 @@ public class GameBoard {
     this.startingCoords = new int[] { -1, -1 };
     this.tilesLeft = height * width - numBombs;
     this.flagsLeft = numBombs;
+    this.floodFill = new FloodFill(width, height);
 
-    populateBoardWithTiles();
+    if (storageMode == BoardStorageMode.PACKED) {
+      this.storage = new PackedBoardStorage(width, height);
+    } else {
+      populateBoardWithTiles();
+      this.storage = new TileListStorage(board, width);
+    }
   }
 
   private void populateBoardWithTiles() {
@@ -60,23 +130,20 @@ public class GameBoard {
   }
 
   private void placeBombs() {
-    int bombsPlaced = 0;
-
-    while (bombsPlaced < numBombs) {
-      int x = random.nextInt(width);
-      int y = random.nextInt(height);
-      Tile tile = getTile(x, y);
-
-      boolean adjacentToStartingX = x >= (startingCoords[0] - 1) && x <= (startingCoords[0] + 1);
-      boolean adjacentToStartingY = y >= (startingCoords[1] - 1) && y <= (startingCoords[1] + 1);
-
-      boolean validBombTile = !tile.isBomb() && !(adjacentToStartingX && adjacentToStartingY);
-      if (validBombTile) {
-        tile.makeBomb();
-        incrementNeighborCounts(x, y);
-        bombTiles.add(tile);
-        bombsPlaced++;
-      }
+    if (boardPool != null) {
+      BombLayout layout = boardPool.take(settings, startingCoords[0], startingCoords[1]);
+      seed = layout.getSeed();
+      bombIndexes = layout.getBombIndexes();
+    } else {
+      // Every board has its own generator, so boards can be generated in parallel
+      // without sharing (and waiting for) a single Random.
+      bombIndexes = BombPlacer.placeFromSeed(width, height, numBombs,
+          startingCoords[0], startingCoords[1], seed);
+    }
+
+    for (int index : bombIndexes) {
+      storage.makeBomb(index);
+      incrementNeighborCounts(index % width, index / width);
     }
   }
 
@@ -95,8 +162,7 @@ public class GameBoard {
     for (int[] location : bombLocations) {
       int x = location[0];
       int y = location[1];
-      Tile tile = getTile(x, y);
-      tile.makeBomb();
+      storage.makeBomb(toIndex(x, y));
       incrementNeighborCounts(x, y);
     }
   }
@@ -109,21 +175,35 @@ public class GameBoard {
    * @return a list of all the tiles adjacent to the tile at the specified coordinate.
    */
   public List<Tile> getNeighborTiles(int x, int y) {
-    List<Tile> neighbors = new ArrayList<>();
-    for (int i = x - 1; i <= x + 1; i++) {
-      for (int j = y - 1; j <= y + 1; j++) {
-        boolean validCoords = i != -1 && i != width && j != -1 && j != height;
-        if (validCoords && !(i == x && j == y)) {
-          neighbors.add(getTile(i, j));
-        }
-      }
+    int[] indexes = new int[Neighbors.MAX];
+    int count = getNeighborIndexes(x, y, indexes);
+    List<Tile> neighbors = new ArrayList<>(count);
+    for (int k = 0; k < count; k++) {
+      neighbors.add(storage.getTile(indexes[k]));
     }
     return neighbors;
   }
 
+  /**
+   * Writes the indexes of all the tiles adjacent to the tile at the specified coordinate into
+   * the buffer. Unlike {@link #getNeighborTiles(int, int)} this does not allocate anything,
+   * so the same buffer can be reused in loops over many tiles.
+
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @param buffer where the indexes ({@code y * width + x}) are written,
+   *     must have room for at least 8 indexes
+   * @return the number of neighbors written to the buffer
+   */
+  public int getNeighborIndexes(int x, int y, int[] buffer) {
+    return Neighbors.fill(x, y, width, height, buffer);
+  }
+
   private void incrementNeighborCounts(int x, int y) {
-    List<Tile> neighbors = getNeighborTiles(x, y);
-    neighbors.forEach(tile -> tile.incrementNumBombsAround());
+    int count = getNeighborIndexes(x, y, neighborBuffer);
+    for (int k = 0; k < count; k++) {
+      storage.incrementNumBombsAround(neighborBuffer[k]);
+    }
   }
 
   /**
@@ -138,21 +218,17 @@ public class GameBoard {
 
    * @param x the row that was clicked
    * @param y the column that was clicked
+   * @return the indexes ({@code y * width + x}) of the tiles which were revealed by this click,
+   *     empty if nothing was revealed
+   * @see #getTileByIndex(int)
    */
-  public void tileClicked(int x, int y) {
+  public int[] tileClicked(int x, int y) {
 
     if (isNewGame()) {
       initializeGame(x, y);
     }
 
-    Tile tile = getTile(x, y);
-
-    if (tile.isBomb()) {
-      tile.reveal();
-      isGameLost = true;
-    } else if (canRevealTile(tile)) {
-      revealTileAndAdjacentIfZero(x, y);
-    }
+    return revealClickedTile(x, y);
   }
 
   /**
@@ -161,19 +237,30 @@ public class GameBoard {
    * @param x row
    * @param y column
    */
-  void testTileClicked(int x, int y) {
+  int[] testTileClicked(int x, int y) {
     if (isNewGame()) {
       setStartingCoords(x, y);
     }
 
-    Tile tile = getTile(x, y);
+    return revealClickedTile(x, y);
+  }
+
+  private int[] revealClickedTile(int x, int y) {
+    int index = toIndex(x, y);
 
-    if (tile.isBomb()) {
-      tile.reveal();
+    if (storage.isBomb(index)) {
+      storage.reveal(index);
       isGameLost = true;
-    } else if (canRevealTile(tile)) {
-      revealTileAndAdjacentIfZero(x, y);
+      return new int[] { index };
     }
+
+    if (storage.isRevealed(index) || storage.isFlagged(index)) {
+      return new int[0];
+    }
+
+    int[] revealed = floodFill.reveal(storage, index);
+    tilesLeft -= revealed.length;
+    return revealed;
   }
 
   private void initializeGame(int row, int col) {
@@ -181,25 +268,6 @@ public class GameBoard {
     placeBombs();
   }
 
-  private void revealTileAndAdjacentIfZero(int x, int y) {
-    Tile tile = getTile(x, y);
-    tile.reveal();
-    tilesLeft--;
-    if (!tile.hasAdjacentBomb()) {
-      revealAdjacent(x, y);
-    }
-  }
-
-  private void revealAdjacent(int x, int y) {
-    for (int i = x - 1; i <= x + 1; i++) {
-      for (int j = y - 1; j <= y + 1; j++) {
-        if (isValidCoordinateNotRevealedNotFlagged(i, j)) {
-          revealTileAndAdjacentIfZero(i, j);
-        }
-      }
-    }
-  }
-
   /**
    * Method for testing purposes.
 
@@ -207,6 +275,7 @@ public class GameBoard {
    */
   protected void setGameboard(List<List<Tile>> gameBoard) {
     this.board = gameBoard;
+    this.storage = new TileListStorage(gameBoard, width);
     List<int[]> bombLocations = findBombLocations();
     placeBombs(bombLocations);
   }
@@ -235,7 +304,33 @@ public class GameBoard {
    * @return The Tile object located at the specified coordinates.
    */
   public Tile getTile(int x, int y) {
-    return board.get(y).get(x);
+    return storage.getTile(toIndex(x, y));
+  }
+
+  /**
+   * Retrieves a Tile object from its index on the board. The index of the tile at (x, y) is
+   * {@code y * width + x}, which is the same as the indexes returned by
+   * {@link #tileClicked(int, int)}.
+
+   * @param index The index of the Tile to retrieve.
+   * @return The Tile object with the specified index.
+   */
+  public Tile getTileByIndex(int index) {
+    return storage.getTile(index);
+  }
+
+  private int toIndex(int x, int y) {
+    return y * width + x;
+  }
+
+  // Index based access for the GameEngine, which does not create Tile objects.
+
+  boolean isBomb(int index) {
+    return storage.isBomb(index);
+  }
+
+  boolean isFlagged(int index) {
+    return storage.isFlagged(index);
   }
 
   public boolean gameIsWon() {
@@ -250,11 +345,6 @@ public class GameBoard {
     return !tile.isRevealed() && !tile.isFlagged();
   }
 
-  private boolean isValidCoordinateNotRevealedNotFlagged(int x, int y) {
-    return x >= 0 && x < width && y >= 0 && y < height
-        && !getTile(x, y).isRevealed() && !getTile(x, y).isFlagged();
-  }
-
   public boolean isNewGame() {
     return startingCoords[0] == -1;
   }
@@ -283,8 +373,17 @@ public class GameBoard {
     return isGameLost;
   }
 
+  /**
+   * Returns the tiles which were made bombs when the game was initialized.
+
+   * @return a new list containing the bomb tiles
+   */
   public List<Tile> getBombTiles() {
-    return new ArrayList<>(bombTiles);
+    List<Tile> bombTiles = new ArrayList<>(bombIndexes.length);
+    for (int index : bombIndexes) {
+      bombTiles.add(storage.getTile(index));
+    }
+    return bombTiles;
   }
 
   public int getWidth() {
@@ -298,4 +397,16 @@ public class GameBoard {
   public int getTilesLeft() {
     return tilesLeft;
   }
+
+  /**
+   * Returns the seed used to place the bombs on this board. Together with the
+   * coordinates of the first click, the seed is enough to generate the same board again.
+   * Boards which take their bombs from a {@link BoardPool} only know their seed
+   * after the first click.
+
+   * @return the seed of this board
+   */
+  public long getSeed() {
+    return seed;
+  }
 }
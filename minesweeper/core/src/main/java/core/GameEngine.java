@@ -1,5 +1,7 @@
 package core;
 
+import core.settings.BoardStorageMode;
+import core.settings.Difficulty;
 import core.settings.SettingsManager;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,13 +18,27 @@ import java.util.List;
 public class GameEngine {
   private GameBoard gameBoard;
   private Stopwatch stopwatch;
-  private List<TileReadable> latestUpdatedTiles = new ArrayList<>();
+  private final BoardPool boardPool;
+  // Indexes (y * width + x) of the tiles changed by the latest action.
+  private final IntList latestUpdatedIndexes = new IntList();
+  private final int[] neighborBuffer = new int[Neighbors.MAX];
 
   /**
    * Initializes a new game with default settings.
    */
   public GameEngine() {
-    gameBoard = new GameBoard(SettingsManager.getGameDifficulty());
+    this(null);
+  }
+
+  /**
+   * Initializes a new game with default settings, where the boards take their bombs from a
+   * pool of ready layouts. This keeps bomb placement out of the first click.
+
+   * @param boardPool the pool to take bomb layouts from, or null to place bombs on the first click
+   */
+  public GameEngine(BoardPool boardPool) {
+    this.boardPool = boardPool;
+    gameBoard = newGameBoard();
     stopwatch = new Stopwatch();
   }
 
@@ -30,9 +46,21 @@ public class GameEngine {
    * Resets the game to its initial state.
    */
   public void resetGame() {
-    this.gameBoard = new GameBoard(SettingsManager.getGameDifficulty());
+    this.gameBoard = newGameBoard();
+    stopwatch.reset();
+    latestUpdatedIndexes.clear();
+  }
+
+  /**
+   * Resets the game to its initial state, with a board generated from the given seed.
+   * The same seed and the same first click gives the same board, so a game can be replayed.
+
+   * @param seed the seed used to place the bombs
+   */
+  public void resetGame(long seed) {
+    this.gameBoard = new GameBoard(SettingsManager.getGameDifficulty(), seed);
     stopwatch.reset();
-    latestUpdatedTiles.clear();
+    latestUpdatedIndexes.clear();
   }
 
   /**
@@ -42,21 +70,30 @@ public class GameEngine {
    * @param y the y coordinate
    */
   public void handleLeftClick(int x, int y) {
-    latestUpdatedTiles.clear();
+    latestUpdatedIndexes.clear();
+    revealTile(x, y);
+  }
 
+  /**
+   * Reveals the tile at the specified coordinates, and records every tile
+   * which was changed as a result.
+   */
+  private void revealTile(int x, int y) {
     TileReadable clickedTile = getTile(x, y);
-    if (clickedTile.isFlagged()) {
+    if (clickedTile.isFlagged() || isGameLost()) {
       return;
     }
 
-    gameBoard.tileClicked(x, y);
+    int[] revealedIndexes = gameBoard.tileClicked(x, y);
 
     if (clickedTile.isBomb()) {
       handleBombClicked();
       return;
     }
 
-    addRevealedTilesToLatestUpdated();
+    for (int index : revealedIndexes) {
+      latestUpdatedIndexes.add(index);
+    }
 
     if (!stopWatchIsStarted()) {
       stopwatch.start();
@@ -74,7 +111,7 @@ public class GameEngine {
    * @param y the y coordinate
    */
   public void handleRightClick(int x, int y) {
-    latestUpdatedTiles.clear();
+    latestUpdatedIndexes.clear();
     if (!gameBoard.isGameStarted()) {
       return;
     }
@@ -92,25 +129,39 @@ public class GameEngine {
    * @param y the y coordinate
    */
   public void handleSpaceBarClick(int x, int y) {
+    latestUpdatedIndexes.clear();
     Tile clickedTile = gameBoard.getTile(x, y);
     if (!clickedTile.isRevealed()) {
       return;
     }
 
-    List<Tile> neighbors = gameBoard.getNeighborTiles(x, y);
-    boolean correctNumberOfFlags = clickedTile.getNumBombsAround() == neighbors.stream().filter(Tile::isFlagged)
-        .count();
+    int count = gameBoard.getNeighborIndexes(x, y, neighborBuffer);
+    int flaggedNeighbors = 0;
+    for (int k = 0; k < count; k++) {
+      if (gameBoard.isFlagged(neighborBuffer[k])) {
+        flaggedNeighbors++;
+      }
+    }
 
+    boolean correctNumberOfFlags = clickedTile.getNumBombsAround() == flaggedNeighbors;
     if (!correctNumberOfFlags) {
       return;
     }
 
-    neighbors.stream().filter(tile -> !tile.isFlagged() && !tile.isBomb())
-        .forEach(tile -> handleLeftClick(tile.getX(), tile.getY()));
-    neighbors.stream().filter(tile -> !tile.isFlagged() && tile.isBomb())
-        .forEach(tile -> handleLeftClick(tile.getX(), tile.getY()));
-
-    addRevealedTilesToLatestUpdated();
+    // Safe tiles are revealed before bombs, so that the revealed area is as large as possible
+    // when the game is lost. The buffer is not touched by revealTile, so it can be reused here.
+    for (int k = 0; k < count; k++) {
+      int index = neighborBuffer[k];
+      if (!gameBoard.isFlagged(index) && !gameBoard.isBomb(index)) {
+        revealTile(index % gameBoard.getWidth(), index / gameBoard.getWidth());
+      }
+    }
+    for (int k = 0; k < count; k++) {
+      int index = neighborBuffer[k];
+      if (!gameBoard.isFlagged(index) && gameBoard.isBomb(index)) {
+        revealTile(index % gameBoard.getWidth(), index / gameBoard.getWidth());
+      }
+    }
   }
 
   /**
@@ -124,8 +175,8 @@ public class GameEngine {
         tile.toggleFlag();
       }
       tile.reveal();
+      latestUpdatedIndexes.add(toIndex(tile.getX(), tile.getY()));
     });
-    latestUpdatedTiles.addAll(bombTiles);
 
     stopwatch.stop();
   }
@@ -138,30 +189,51 @@ public class GameEngine {
     } else {
       gameBoard.incrementFlagsLeft();
     }
-    latestUpdatedTiles.add(tile);
+    latestUpdatedIndexes.add(toIndex(tile.getX(), tile.getY()));
   }
 
   private boolean canToggleFlag(Tile tile) {
     return !tile.isRevealed() && gameBoard.hasFlagsLeft() || tile.isFlagged();
   }
 
-  private void addRevealedTilesToLatestUpdated() {
-    for (int i = 0; i < gameBoard.getWidth(); i++) {
-      for (int j = 0; j < gameBoard.getHeight(); j++) {
-        TileReadable tile = getTile(i, j);
-        if (tile.isRevealed()) {
-          latestUpdatedTiles.add(tile);
-        }
-      }
+  private GameBoard newGameBoard() {
+    Difficulty difficulty = SettingsManager.getGameDifficulty();
+    if (boardPool != null) {
+      return new GameBoard(difficulty, BoardStorageMode.forBoard(difficulty), boardPool);
     }
+    return new GameBoard(difficulty);
+  }
+
+  private int toIndex(int x, int y) {
+    return y * gameBoard.getWidth() + x;
   }
 
   public boolean stopWatchIsStarted() {
     return stopwatch.isStarted();
   }
 
+  /**
+   * Returns the tiles which were changed by the latest action (revealed, flagged or unflagged).
+   * Tiles which did not change are not included, so the GUI only has to redraw these.
+
+   * @return a new list containing the changed tiles
+   */
   public List<TileReadable> getLatestUpdatedTiles() {
-    return new ArrayList<>(latestUpdatedTiles);
+    List<TileReadable> tiles = new ArrayList<>(latestUpdatedIndexes.size());
+    for (int i = 0; i < latestUpdatedIndexes.size(); i++) {
+      tiles.add(gameBoard.getTileByIndex(latestUpdatedIndexes.get(i)));
+    }
+    return tiles;
+  }
+
+  /**
+   * Returns the changes of the latest action as a compact array of tile indexes,
+   * where the index of the tile at (x, y) is {@code y * width + x}.
+
+   * @return the indexes of the tiles which were changed by the latest action
+   */
+  public int[] getLatestUpdatedIndexes() {
+    return latestUpdatedIndexes.toArray();
   }
 
   public int getFlagsLeft() {
@@ -200,6 +272,10 @@ public class GameEngine {
     return stopwatch;
   }
 
+  public long getSeed() {
+    return gameBoard.getSeed();
+  }
+
   // For testing
   public List<Tile> getNeighborTiles(int x, int y) {
     return gameBoard.getNeighborTiles(x, y);
@@ -0,0 +1,82 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive ints to primitive ints, for keys which are never negative. Used where
+ * a Map of Integers would box every key and value, for example for the swapped positions of the
+ * sparse bomb shuffle.
+ *
+ * <p>The entries are kept in two plain arrays with open addressing: a key which collides is put in
+ * the next free slot instead of in a linked node. The arrays are doubled before they are half
+ * full, so a search always finds a free slot quickly.
+ */
+class IntIntMap {
+
+  private static final int EMPTY = -1;
+
+  private int[] keys;
+  private int[] values;
+  private int size;
+
+  IntIntMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+    keys = new int[capacity];
+    values = new int[capacity];
+    Arrays.fill(keys, EMPTY);
+  }
+
+  int getOrDefault(int key, int defaultValue) {
+    int slot = slot(keys, key);
+    return keys[slot] == key ? values[slot] : defaultValue;
+  }
+
+  void put(int key, int value) {
+    if (key < 0) {
+      throw new IllegalArgumentException("Keys can not be negative, got " + key);
+    }
+    int slot = slot(keys, key);
+    if (keys[slot] == EMPTY) {
+      if ((size + 1) * 2 > keys.length) {
+        grow();
+        slot = slot(keys, key);
+      }
+      keys[slot] = key;
+      size++;
+    }
+    values[slot] = value;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void grow() {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new int[oldKeys.length * 2];
+    values = new int[oldKeys.length * 2];
+    Arrays.fill(keys, EMPTY);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = slot(keys, oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Returns the slot which holds the key, or the empty slot where it would go.
+   */
+  private static int slot(int[] keys, int key) {
+    int mask = keys.length - 1;
+    // Spreads keys which are close together, like tile indexes, over the whole table.
+    int hash = key * 0x9E3779B9;
+    int slot = (hash ^ hash >>> 16) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+}
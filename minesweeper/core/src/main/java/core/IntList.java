@@ -0,0 +1,52 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints. Used where a List of Integers would box every element,
+ * for example for the work queue of the flood fill. Clearing the list keeps the backing array,
+ * so a list which is reused does not allocate once it has grown large enough.
+ */
+class IntList {
+
+  private int[] elements;
+  private int size;
+
+  IntList() {
+    this(16);
+  }
+
+  IntList(int initialCapacity) {
+    elements = new int[Math.max(initialCapacity, 1)];
+  }
+
+  void add(int value) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, elements.length * 2);
+    }
+    elements[size++] = value;
+  }
+
+  int get(int i) {
+    if (i >= size) {
+      throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+    }
+    return elements[i];
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  int[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+}
@@ -0,0 +1,112 @@
+package core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.util.List;
+
+/**
+ * Converts highscores to and from JSON, with the same settings everywhere in the game.
+ *
+ * <p>Creating an ObjectMapper is expensive, and so is the first conversion of each type, since
+ * Jackson has to inspect the class and build a serializer for it. That work used to be repeated
+ * every time a score was read or written. Here it is done once, and the readers and writers are
+ * kept. ObjectReaders and ObjectWriters never change after they are created, so they can be
+ * shared by any number of threads.
+ */
+public final class JsonCodec {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+  private static final TypeReference<List<UserScore>> SCORE_LIST =
+      new TypeReference<List<UserScore>>() {
+      };
+
+  private static final ObjectReader treeReader = objectMapper.reader();
+  private static final ObjectReader scoreReader = objectMapper.readerFor(UserScore.class);
+  private static final ObjectReader scoreListReader = objectMapper.readerFor(SCORE_LIST);
+  private static final ObjectWriter valueWriter = objectMapper.writer();
+  private static final ObjectWriter scoreWriter = objectMapper.writerFor(UserScore.class);
+  private static final ObjectWriter scoreListWriter = objectMapper.writerFor(SCORE_LIST)
+      .withDefaultPrettyPrinter();
+
+  private JsonCodec() {
+  }
+
+  /**
+   * Creates an ObjectMapper with the same settings as the readers and writers here, for code which
+   * needs a whole ObjectMapper, like Spring. A new copy is returned every time, so that changing
+   * its settings does not change how the rest of the game reads and writes JSON.
+
+   * @return a new ObjectMapper
+   */
+  public static ObjectMapper newObjectMapper() {
+    return objectMapper.copy();
+  }
+
+  /**
+   * Returns the factory of the shared ObjectMapper, for creating streaming parsers.
+
+   * @return the JSON factory
+   */
+  public static JsonFactory factory() {
+    return objectMapper.getFactory();
+  }
+
+  /**
+   * Returns a reader for JSON which is not bound to a class, like {@code readTree}.
+
+   * @return the reader
+   */
+  public static ObjectReader treeReader() {
+    return treeReader;
+  }
+
+  /**
+   * Returns a reader for a single UserScore.
+
+   * @return the reader
+   */
+  public static ObjectReader scoreReader() {
+    return scoreReader;
+  }
+
+  /**
+   * Returns a reader for a JSON array of UserScores, which reads it into a {@code List}.
+
+   * @return the reader
+   */
+  public static ObjectReader scoreListReader() {
+    return scoreListReader;
+  }
+
+  /**
+   * Returns a writer for any value, which writes it on one line. Unlike {@link #scoreWriter()},
+   * it looks at the class of each value it writes, so it also writes the properties of subclasses.
+
+   * @return the writer
+   */
+  public static ObjectWriter valueWriter() {
+    return valueWriter;
+  }
+
+  /**
+   * Returns a writer for a single UserScore, which writes it on one line.
+
+   * @return the writer
+   */
+  public static ObjectWriter scoreWriter() {
+    return scoreWriter;
+  }
+
+  /**
+   * Returns a writer for a list of UserScores, which writes them pretty-printed, like in the
+   * highscore file.
+
+   * @return the writer
+   */
+  public static ObjectWriter scoreListWriter() {
+    return scoreListWriter;
+  }
+}
@@ -0,0 +1,45 @@
+package core;
+
+/**
+ * Finds the neighbors of a tile without allocating anything. The offsets to the eight
+ * neighbors are precomputed, and the indexes of the neighbors are written into an array
+ * supplied by the caller, which can be reused for every call.
+ */
+final class Neighbors {
+
+  // The order matches the order GameBoard.getNeighborTiles has always used:
+  // column by column from left to right, and from top to bottom within each column.
+  static final int[] DX = { -1, -1, -1, 0, 0, 1, 1, 1 };
+  static final int[] DY = { -1, 0, 1, -1, 1, -1, 0, 1 };
+
+  /**
+   * The largest number of neighbors a tile can have, and so the smallest buffer size to use.
+   */
+  static final int MAX = 8;
+
+  private Neighbors() {
+  }
+
+  /**
+   * Writes the indexes ({@code y * width + x}) of the neighbors of the tile at (x, y)
+   * into the buffer. Neighbors outside the board are skipped.
+
+   * @param x the x coordinate of the tile
+   * @param y the y coordinate of the tile
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param buffer the array to write the indexes to, must have room for {@link #MAX} indexes
+   * @return the number of neighbors written to the buffer
+   */
+  static int fill(int x, int y, int width, int height, int[] buffer) {
+    int count = 0;
+    for (int k = 0; k < MAX; k++) {
+      int i = x + DX[k];
+      int j = y + DY[k];
+      if (i >= 0 && i < width && j >= 0 && j < height) {
+        buffer[count++] = j * width + i;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,90 @@
+package core;
+
+import java.util.BitSet;
+
+/**
+ * A compact storage where the state of the whole board is kept in flat primitive structures.
+ * Bombs, revealed tiles and flags are stored as bitsets, and the number of bombs around each
+ * tile is stored in a byte array (the number can never be larger than 8).
+ *
+ * <p>A 1000x1000 board needs about 1.4 MB this way, instead of one Tile object per cell.
+ * Tile objects are only created when someone asks for them, see {@link PackedTile}.
+ */
+class PackedBoardStorage implements BoardStorage {
+
+  private final int width;
+  private final BitSet bombs;
+  private final BitSet revealed;
+  private final BitSet flagged;
+  private final byte[] numBombsAround;
+
+  /**
+   * Creates an empty storage, where no tiles are bombs, revealed or flagged.
+
+   * @param width the width of the board
+   * @param height the height of the board
+   */
+  PackedBoardStorage(int width, int height) {
+    int size = width * height;
+    this.width = width;
+    this.bombs = new BitSet(size);
+    this.revealed = new BitSet(size);
+    this.flagged = new BitSet(size);
+    this.numBombsAround = new byte[size];
+  }
+
+  @Override
+  public Tile getTile(int index) {
+    return new PackedTile(this, index, index % width, index / width);
+  }
+
+  @Override
+  public boolean isBomb(int index) {
+    return bombs.get(index);
+  }
+
+  @Override
+  public boolean isRevealed(int index) {
+    return revealed.get(index);
+  }
+
+  @Override
+  public boolean isFlagged(int index) {
+    return flagged.get(index);
+  }
+
+  @Override
+  public int getNumBombsAround(int index) {
+    return numBombsAround[index];
+  }
+
+  @Override
+  public void makeBomb(int index) {
+    bombs.set(index);
+  }
+
+  @Override
+  public void incrementNumBombsAround(int index) {
+    numBombsAround[index]++;
+  }
+
+  @Override
+  public void reveal(int index) {
+    if (flagged.get(index)) {
+      throw new IllegalStateException("Cannot reveal a flagged tile");
+    }
+    revealed.set(index);
+  }
+
+  /**
+   * Toggles the flag of the tile at the given index.
+
+   * @param index the index of the tile
+   */
+  void toggleFlag(int index) {
+    if (revealed.get(index)) {
+      throw new IllegalStateException("Cannot flag a revealed tile");
+    }
+    flagged.flip(index);
+  }
+}
@@ -0,0 +1,57 @@
+package core;
+
+/**
+ * A Tile which has no state of its own. Every read and write goes straight through to
+ * the {@link PackedBoardStorage} it was created from, so changing a PackedTile changes the board.
+ */
+class PackedTile extends Tile {
+
+  private final PackedBoardStorage storage;
+  private final int index;
+
+  PackedTile(PackedBoardStorage storage, int index, int x, int y) {
+    super(x, y);
+    this.storage = storage;
+    this.index = index;
+  }
+
+  @Override
+  public boolean isBomb() {
+    return storage.isBomb(index);
+  }
+
+  @Override
+  public boolean isFlagged() {
+    return storage.isFlagged(index);
+  }
+
+  @Override
+  public boolean isRevealed() {
+    return storage.isRevealed(index);
+  }
+
+  @Override
+  public int getNumBombsAround() {
+    return storage.getNumBombsAround(index);
+  }
+
+  @Override
+  public void toggleFlag() {
+    storage.toggleFlag(index);
+  }
+
+  @Override
+  public void reveal() {
+    storage.reveal(index);
+  }
+
+  @Override
+  protected void makeBomb() {
+    storage.makeBomb(index);
+  }
+
+  @Override
+  protected void incrementNumBombsAround() {
+    storage.incrementNumBombsAround(index);
+  }
+}
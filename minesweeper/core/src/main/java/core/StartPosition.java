@@ -0,0 +1,99 @@
+package core;
+
+/**
+ * Groups first clicks by how many tiles around them are kept free of bombs: a click in the
+ * interior protects a 3x3 area, a click on the top or bottom edge a 3x2 area, a click on the
+ * left or right edge a 2x3 area, and a click in a corner a 2x2 area.
+ *
+ * <p>Bombs are always placed as if the first click was made at the canonical tile of its class,
+ * and then moved into place by shifting columns and rows around the board and mirroring it.
+ * Both are one-to-one mappings of the tiles, so every layout stays exactly as likely as before,
+ * but a layout no longer depends on the exact first click, only on its class. That is what lets
+ * {@link BoardPool} generate layouts before anyone has clicked.
+ */
+enum StartPosition {
+  INTERIOR(1, 1),
+  HORIZONTAL_EDGE(1, 0),
+  VERTICAL_EDGE(0, 1),
+  CORNER(0, 0);
+
+  private final int canonicalX;
+  private final int canonicalY;
+
+  private StartPosition(int canonicalX, int canonicalY) {
+    this.canonicalX = canonicalX;
+    this.canonicalY = canonicalY;
+  }
+
+  /**
+   * Boards narrower or lower than three tiles do not have separate edges and corners,
+   * so layouts for them cannot be moved around.
+
+   * @param width the width of the board
+   * @param height the height of the board
+   * @return true if first clicks on this board can be classified
+   */
+  static boolean supports(int width, int height) {
+    return width >= 3 && height >= 3;
+  }
+
+  /**
+   * Finds the class of a first click.
+
+   * @param x the x coordinate of the first click
+   * @param y the y coordinate of the first click
+   * @param width the width of the board
+   * @param height the height of the board
+   * @return the class of the first click
+   */
+  static StartPosition of(int x, int y, int width, int height) {
+    boolean onVerticalEdge = x == 0 || x == width - 1;
+    boolean onHorizontalEdge = y == 0 || y == height - 1;
+
+    if (onVerticalEdge && onHorizontalEdge) {
+      return CORNER;
+    } else if (onVerticalEdge) {
+      return VERTICAL_EDGE;
+    } else if (onHorizontalEdge) {
+      return HORIZONTAL_EDGE;
+    }
+    return INTERIOR;
+  }
+
+  int getCanonicalX() {
+    return canonicalX;
+  }
+
+  int getCanonicalY() {
+    return canonicalY;
+  }
+
+  /**
+   * Moves a layout made for the canonical tile of this class, so that it fits the real first
+   * click instead. The indexes in the array are replaced.
+
+   * @param bombs the indexes ({@code y * width + x}) of the bombs
+   * @param x the x coordinate of the real first click, which must belong to this class
+   * @param y the y coordinate of the real first click, which must belong to this class
+   * @param width the width of the board
+   * @param height the height of the board
+   */
+  void moveToClick(int[] bombs, int x, int y, int width, int height) {
+    int shiftX = this == INTERIOR || this == HORIZONTAL_EDGE ? x - canonicalX : 0;
+    int shiftY = this == INTERIOR || this == VERTICAL_EDGE ? y - canonicalY : 0;
+    boolean mirrorX = this != INTERIOR && this != HORIZONTAL_EDGE && x == width - 1;
+    boolean mirrorY = this != INTERIOR && this != VERTICAL_EDGE && y == height - 1;
+
+    for (int i = 0; i < bombs.length; i++) {
+      int bombX = (bombs[i] % width + shiftX) % width;
+      int bombY = (bombs[i] / width + shiftY) % height;
+      if (mirrorX) {
+        bombX = width - 1 - bombX;
+      }
+      if (mirrorY) {
+        bombY = height - 1 - bombY;
+      }
+      bombs[i] = bombY * width + bombX;
+    }
+  }
+}
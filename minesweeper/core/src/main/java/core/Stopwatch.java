@@ -9,6 +9,12 @@ import java.time.LocalDate;
  * Minesweeper game.
  */
 public class Stopwatch {
+
+  /**
+   * The highest time the stopwatch shows, in seconds.
+   */
+  public static final int MAX_TIME = 999;
+
   private String date;
   protected long timeWhenStarted;
   protected int endTime;
@@ -77,11 +83,11 @@ public class Stopwatch {
     }
 
     int timeUsed = ((int) (System.currentTimeMillis() - timeWhenStarted) / 1000);
-    boolean usedTooLongTime = timeUsed >= 999;
+    boolean usedTooLongTime = timeUsed >= MAX_TIME;
 
     if (usedTooLongTime) {
       finished = true;
-      return 999;
+      return MAX_TIME;
     }
 
     return timeUsed; // Return the time used in seconds
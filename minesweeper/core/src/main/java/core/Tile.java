@@ -93,11 +93,11 @@ public class Tile implements TileReadable {
    * @return the path to the image that should be displayed for this tile (string)
    */
   public String getRevealedImagePath() {
-    if (isFlagged) {
+    if (isFlagged()) {
       return "flag.png";
-    } else if (!isRevealed) {
+    } else if (!isRevealed()) {
       return "square.jpg";
-    } else if (isBomb) {
+    } else if (isBomb()) {
       return "bomb.png";
     } else {
       return "number" + getNumBombsAround() + ".jpg";
@@ -106,11 +106,11 @@ public class Tile implements TileReadable {
 
   @Override
   public String toString() {
-    if (isFlagged) {
+    if (isFlagged()) {
       return "F";
     }
 
-    if (isBomb) {
+    if (isBomb()) {
       return "X";
     }
 
@@ -0,0 +1,64 @@
+package core;
+
+import java.util.List;
+
+/**
+ * The classic storage, where every cell on the board is its own Tile object,
+ * kept in a list of rows.
+ */
+class TileListStorage implements BoardStorage {
+
+  private final List<List<Tile>> rows;
+  private final int width;
+
+  /**
+   * Creates a storage on top of an already populated list of rows.
+
+   * @param rows the rows of the board, where {@code rows.get(y).get(x)} is the tile at (x, y)
+   * @param width the number of tiles in each row
+   */
+  TileListStorage(List<List<Tile>> rows, int width) {
+    this.rows = rows;
+    this.width = width;
+  }
+
+  @Override
+  public Tile getTile(int index) {
+    return rows.get(index / width).get(index % width);
+  }
+
+  @Override
+  public boolean isBomb(int index) {
+    return getTile(index).isBomb();
+  }
+
+  @Override
+  public boolean isRevealed(int index) {
+    return getTile(index).isRevealed();
+  }
+
+  @Override
+  public boolean isFlagged(int index) {
+    return getTile(index).isFlagged();
+  }
+
+  @Override
+  public int getNumBombsAround(int index) {
+    return getTile(index).getNumBombsAround();
+  }
+
+  @Override
+  public void makeBomb(int index) {
+    getTile(index).makeBomb();
+  }
+
+  @Override
+  public void incrementNumBombsAround(int index) {
+    getTile(index).incrementNumBombsAround();
+  }
+
+  @Override
+  public void reveal(int index) {
+    getTile(index).reveal();
+  }
+}
@@ -3,7 +3,6 @@ package core;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * This class is used to represent a user score, which is written to the highscore file. It contains
@@ -47,9 +46,8 @@ public class UserScore {
    * @return JSON string representation of the UserScore object
    */
   public String toJson() {
-    ObjectMapper jsonConverter = new ObjectMapper();
     try {
-      return jsonConverter.writeValueAsString(this);
+      return JsonCodec.valueWriter().writeValueAsString(this);
     } catch (JsonProcessingException e) {
       e.printStackTrace();
       return "";
@@ -0,0 +1,101 @@
+package core.savehandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files in a way which survives a crash: either the old file or the new file is found
+ * afterwards, never a file which was only half written.
+ *
+ * <p>The new content is written to a temporary file next to the target, synced to the disk, and
+ * then renamed over the target. A rename within one directory is atomic. Finally the directory
+ * itself is synced, so that the rename is not lost either.
+ */
+final class AtomicFile {
+
+  /**
+   * Writes the content of a file.
+   */
+  interface Writer {
+    void write(File file) throws IOException;
+  }
+
+  private AtomicFile() {
+  }
+
+  /**
+   * Replaces a file with new content.
+
+   * @param target the file to replace, or to create if it does not exist
+   * @param writer writes the new content to the file it is given, which is a temporary file
+   * @throws IOException if the content could not be written, or if the target is read only.
+   *     The target is then left as it was.
+   */
+  static void write(File target, Writer writer) throws IOException {
+    // A rename does not care whether the target can be written to, so this is checked here.
+    if (target.exists() && !target.canWrite()) {
+      throw new IOException(target + " is read only");
+    }
+
+    File temporary = temporaryFile(target);
+    try {
+      writer.write(temporary);
+      sync(temporary.toPath());
+      move(temporary.toPath(), target.toPath());
+    } finally {
+      Files.deleteIfExists(temporary.toPath());
+    }
+  }
+
+  /**
+   * Renames a file, replacing the target if it exists, and syncs the directory.
+
+   * @param source the file to rename
+   * @param target the new name, in the same directory
+   * @throws IOException if the file could not be renamed
+   */
+  static void move(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+    syncDirectory(target.toAbsolutePath().getParent());
+  }
+
+  /**
+   * Returns the temporary file used while replacing a file. It is only left behind if the program
+   * stops while writing, and can then be deleted.
+
+   * @param target the file which is replaced
+   * @return the temporary file
+   */
+  static File temporaryFile(File target) {
+    return new File(target.getPath() + ".tmp");
+  }
+
+  private static void sync(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+  }
+
+  private static void syncDirectory(Path directory) {
+    if (directory == null) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // Some systems, like Windows, can not open or sync a directory. The rename is then
+      // as durable as the file system makes it on its own.
+    }
+  }
+}
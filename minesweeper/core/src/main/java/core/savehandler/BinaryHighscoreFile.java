@@ -0,0 +1,344 @@
+package core.savehandler;
+
+import core.JsonCodec;
+import core.UserScore;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary format for highscores, which is read through a memory-mapped file.
+ *
+ * <p>The JSON highscore file repeats the date and the difficulty name in every score, and has to
+ * be parsed into objects as a whole before anything can be read from it. Here every score is
+ * instead a fixed-width record of {@value #RECORD_SIZE} bytes, and every name, difficulty and
+ * unusual date is stored only once, in a table of strings which the records refer to:
+ *
+ * <pre>
+ * header:  magic "MSHS" (int), version (int), number of strings (int), number of records (int)
+ * strings: for every string, its length in bytes (int) and its UTF-8 bytes
+ * records: score (unsigned short), difficulty id (unsigned short), date (int), name id (int)
+ * </pre>
+ *
+ * <p>The score is a short, and the date is a number of days, as small as they can be without
+ * losing anything. The difficulty id is two bytes rather than one: every custom board size is a
+ * difficulty of its own, like "CUSTOM_30x16_99", so a leaderboard can have far more than the 256
+ * difficulties one byte could tell apart. The name id is an int, since every player adds a name.
+ * Together with the date this makes {@value #RECORD_SIZE} bytes, and keeps every field aligned.
+ *
+ * <p>The difficulties come first in the string table, so their ids always fit in two bytes.
+ * A date from 1970 or later, written like "2023-11-01", is stored as the number of days since
+ * 1970-01-01. Any other date is stored as -(id + 1) of a string. A missing string is stored as
+ * the largest difficulty id, or as -1 for a name, or as {@link Integer#MIN_VALUE} for a date.
+ *
+ * <p>Opening a file with {@link #open(File)} only reads the header and the string table. The
+ * records stay in the mapped file, and are read straight from it by the getters, so scanning
+ * millions of scores creates no objects unless {@link #get(int)} or {@link #toList()} is used.
+ *
+ * <p>Java has no way to unmap a file, so it stays mapped until the BinaryHighscoreFile is garbage
+ * collected, and on Windows a mapped file can not be replaced or deleted until then. A file which
+ * is about to be replaced, like the snapshot of a {@link HighscoreLog}, is therefore read with
+ * {@link #load(File)} or {@link #read(File)} instead, which copy the file into memory with a
+ * single read and never map it. Loading the highscores at startup still creates a UserScore for
+ * every record, since that is what the leaderboard keeps, but skips the JSON parsing.
+ */
+public final class BinaryHighscoreFile {
+
+  public static final int RECORD_SIZE = 12;
+  public static final int MAX_SCORE = 0xFFFF;
+
+  private static final int MAGIC = 0x4D534853;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 16;
+  private static final int MAX_DIFFICULTIES = 0xFFFF;
+  private static final int NO_DIFFICULTY = 0xFFFF;
+  private static final int NO_NAME = -1;
+  private static final int NO_DATE = Integer.MIN_VALUE;
+
+  private final ByteBuffer records;
+  private final String[] strings;
+  private final int size;
+
+  private BinaryHighscoreFile(ByteBuffer records, String[] strings, int size) {
+    this.records = records;
+    this.strings = strings;
+    this.size = size;
+  }
+
+  /**
+   * Checks whether a file starts like a binary highscore file.
+
+   * @param file the file to check
+   * @return true if the file exists and is a binary highscore file
+   */
+  public static boolean isBinary(File file) {
+    if (!file.isFile()) {
+      return false;
+    }
+    try (InputStream is = Files.newInputStream(file.toPath())) {
+      byte[] magic = is.readNBytes(4);
+      return magic.length == 4 && ByteBuffer.wrap(magic).getInt() == MAGIC;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Checks whether the score of a highscore fits in a record.
+
+   * @param userScore the highscore to check
+   * @return true if the score is between 0 and {@value #MAX_SCORE}
+   */
+  public static boolean canStore(UserScore userScore) {
+    return userScore.getScore() >= 0 && userScore.getScore() <= MAX_SCORE;
+  }
+
+  /**
+   * Converts a highscore file in the JSON format to the binary format. The binary file is only
+   * created once it is complete (see {@link AtomicFile}), so a conversion which is stopped half
+   * way leaves no binary file behind, and is done again from the start the next time.
+
+   * @param jsonFile the JSON file to read the scores from
+   * @param binaryFile the binary file to write, which is replaced if it exists
+   * @throws IOException if the JSON file could not be read, or the binary file not written
+   * @throws IllegalArgumentException if a score cannot be stored, see {@link #write}
+   */
+  public static void convert(File jsonFile, File binaryFile) throws IOException {
+    List<UserScore> userScores = JsonCodec.scoreListReader().readValue(jsonFile);
+    AtomicFile.write(binaryFile, file -> write(userScores, file));
+  }
+
+  /**
+   * Writes scores to a binary highscore file, in the order they are given.
+
+   * @param userScores the scores to write
+   * @param file the file to write to, which is replaced if it exists
+   * @throws IOException if the file could not be written
+   * @throws IllegalArgumentException if a score is negative or larger than {@value #MAX_SCORE},
+   *     or if there are too many different difficulties
+   */
+  public static void write(List<UserScore> userScores, File file) throws IOException {
+    Map<String, Integer> difficultyIds = new HashMap<>();
+    for (UserScore userScore : userScores) {
+      if (!canStore(userScore)) {
+        throw new IllegalArgumentException("Cannot store the score " + userScore.getScore()
+            + ", scores must be between 0 and " + MAX_SCORE);
+      }
+      if (userScore.getDifficulty() != null) {
+        difficultyIds.putIfAbsent(userScore.getDifficulty(), difficultyIds.size());
+      }
+    }
+    if (difficultyIds.size() > MAX_DIFFICULTIES) {
+      throw new IllegalArgumentException("Cannot store more than " + MAX_DIFFICULTIES
+          + " different difficulties");
+    }
+
+    // The difficulties get the first ids, the names and the unusual dates follow.
+    Map<String, Integer> stringIds = new HashMap<>(difficultyIds);
+    List<String> strings = new ArrayList<>(difficultyIds.keySet());
+    strings.sort((a, b) -> difficultyIds.get(a) - difficultyIds.get(b));
+    ByteBuffer recordBytes = ByteBuffer.allocate(userScores.size() * RECORD_SIZE);
+    for (UserScore userScore : userScores) {
+      recordBytes.putChar((char) userScore.getScore());
+      recordBytes.putChar(userScore.getDifficulty() == null
+          ? NO_DIFFICULTY : (char) (int) difficultyIds.get(userScore.getDifficulty()));
+      recordBytes.putInt(encodeDate(userScore.getDate(), stringIds, strings));
+      recordBytes.putInt(userScore.getName() == null
+          ? NO_NAME : intern(userScore.getName(), stringIds, strings));
+    }
+
+    try (OutputStream os = new FileOutputStream(file);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(strings.size());
+      out.writeInt(userScores.size());
+      for (String string : strings) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      out.write(recordBytes.array());
+    }
+  }
+
+  /**
+   * Opens a binary highscore file, by mapping it into memory.
+
+   * @param file the file to open
+   * @return the opened file
+   * @throws IOException if the file could not be read, or is not a binary highscore file
+   */
+  public static BinaryHighscoreFile open(File file) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    return parse(buffer, file);
+  }
+
+  /**
+   * Reads a binary highscore file into memory, without mapping it, so the file can be replaced
+   * or deleted right away. The records are still read straight from the copy by the getters.
+
+   * @param file the file to read
+   * @return the read file
+   * @throws IOException if the file could not be read, or is not a binary highscore file
+   */
+  public static BinaryHighscoreFile load(File file) throws IOException {
+    return parse(ByteBuffer.wrap(Files.readAllBytes(file.toPath())), file);
+  }
+
+  private static BinaryHighscoreFile parse(ByteBuffer buffer, File file) throws IOException {
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException(file + " is not a binary highscore file");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IOException("Unknown version " + version + " of the binary highscore file "
+            + file);
+      }
+      int stringCount = buffer.getInt();
+      int size = buffer.getInt();
+      if (stringCount < 0 || size < 0) {
+        throw new IOException("The binary highscore file " + file + " is damaged");
+      }
+
+      String[] strings = new String[stringCount];
+      for (int i = 0; i < stringCount; i++) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      if (buffer.remaining() < (long) size * RECORD_SIZE) {
+        throw new IOException("The binary highscore file " + file + " is shorter than it should"
+            + " be");
+      }
+      return new BinaryHighscoreFile(buffer.slice(), strings, size);
+    } catch (BufferUnderflowException | NegativeArraySizeException e) {
+      throw new IOException("The binary highscore file " + file + " is damaged", e);
+    }
+  }
+
+  /**
+   * Reads every score in a binary highscore file.
+
+   * @param file the file to read
+   * @return the scores, in the order they were written
+   * @throws IOException if the file could not be read, or is not a binary highscore file
+   */
+  public static List<UserScore> read(File file) throws IOException {
+    return load(file).toList();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int getScore(int index) {
+    return records.getChar(offset(index));
+  }
+
+  /**
+   * Returns the difficulty of a score.
+
+   * @param index the index of the score
+   * @return the name of the difficulty, which is the same string object for every score
+   *     with that difficulty
+   */
+  public String getDifficulty(int index) {
+    int id = records.getChar(offset(index) + 2);
+    return id == NO_DIFFICULTY ? null : strings[id];
+  }
+
+  /**
+   * Returns the date of a score.
+
+   * @param index the index of the score
+   * @return the date, like "2023-11-01"
+   */
+  public String getDate(int index) {
+    int date = records.getInt(offset(index) + 4);
+    if (date == NO_DATE) {
+      return null;
+    } else if (date < 0) {
+      return strings[-date - 1];
+    }
+    return LocalDate.ofEpochDay(date).toString();
+  }
+
+  public String getName(int index) {
+    int id = records.getInt(offset(index) + 8);
+    return id == NO_NAME ? null : strings[id];
+  }
+
+  public UserScore get(int index) {
+    return new UserScore(getName(index), getScore(index), getDate(index), getDifficulty(index));
+  }
+
+  /**
+   * Reads every score in the file.
+
+   * @return the scores, in the order they were written
+   */
+  public List<UserScore> toList() {
+    List<UserScore> userScores = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      userScores.add(get(i));
+    }
+    return userScores;
+  }
+
+  private int offset(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + size
+          + " scores");
+    }
+    return index * RECORD_SIZE;
+  }
+
+  private static int encodeDate(String date, Map<String, Integer> stringIds,
+      List<String> strings) {
+    if (date == null) {
+      return NO_DATE;
+    }
+    try {
+      LocalDate localDate = LocalDate.parse(date);
+      // Only dates which are written back exactly the same way can be stored as a number.
+      if (localDate.toEpochDay() >= 0 && localDate.toEpochDay() <= Integer.MAX_VALUE
+          && localDate.toString().equals(date)) {
+        return (int) localDate.toEpochDay();
+      }
+    } catch (DateTimeParseException e) {
+      // Stored as a string below.
+    }
+    return -intern(date, stringIds, strings) - 1;
+  }
+
+  private static int intern(String string, Map<String, Integer> stringIds, List<String> strings) {
+    return stringIds.computeIfAbsent(string, s -> {
+      strings.add(s);
+      return strings.size() - 1;
+    });
+  }
+}
@@ -1,12 +1,12 @@
 package core.savehandler;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import core.JsonCodec;
 import core.UserScore;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,6 +16,8 @@ import java.util.List;
 public class HighscoreFileManager {
 
   private static final File highscoreFile = new File("./../appdata/highscore.json");
+  private static final File highscoreLogFile = new File("./../appdata/highscore.log");
+  private static final File highscoreBinaryFile = new File("./../appdata/highscore.bin");
 
   /**
    * Private constructor to prevent instantiation, and to make jacoco not complain.
@@ -33,14 +35,42 @@ public class HighscoreFileManager {
     return highscoreFile;
   }
 
+  /**
+   * Getter for the log of new highscores, which belongs to the highscore file.
+
+   * @return The highscore log file.
+   * @see HighscoreLog
+   */
+  public static File getLogFile() {
+    return highscoreLogFile;
+  }
+
+  /**
+   * Getter for the highscore file in the binary format, which is used instead of the JSON file
+   * when the server is set up to use it.
+
+   * @return The binary highscore file.
+   * @see BinaryHighscoreFile
+   */
+  public static File getBinaryFile() {
+    return highscoreBinaryFile;
+  }
+
   /**
    * Writes a UserScore to the highscore file. Ensures that the highscore file is sorted by score,
-   * lower scores first.
+   * lower scores first. If the highscore file exists, but cannot be read, it is left as it is,
+   * instead of being replaced by a file with only the new score.
 
    * @param userScore The score which the player has achieved.
    */
-  public static void writeToHighscore(UserScore userScore, File file) {
-    List<UserScore> userScores = readFromHighscore(file);
+  public static synchronized void writeToHighscore(UserScore userScore, File file) {
+    List<UserScore> userScores;
+    try {
+      userScores = readForUpdate(file);
+    } catch (IOException e) {
+      e.printStackTrace();
+      return;
+    }
     userScores.add(userScore);
     sortUserScores(userScores);
     writeToFile(userScores, file);
@@ -56,21 +86,33 @@ public class HighscoreFileManager {
   }
 
   /**
-   * Writes a list of UserScores to the highscore file.
+   * Writes a list of UserScores to the highscore file. The file is replaced in one step (see
+   * {@link AtomicFile}), so if the program stops while writing, the old file is still there.
 
    * @param userScores The scores which are to be written to the highscore file.
    */
   private static void writeToFile(List<UserScore> userScores, File file) {
-    ObjectMapper objectMapper = new ObjectMapper();
     try {
-      objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, userScores);
+      AtomicFile.write(file, temporary -> JsonCodec.scoreListWriter().writeValue(temporary,
+          userScores));
     } catch (IOException e) {
-      // It is actually very unlikely that something will go wrong here.
-      // Since if you specify a file which does not exist, it will be created.
       e.printStackTrace();
     }
   }
 
+  /**
+   * Reads the highscore file before it is changed. Unlike {@link #readFromHighscore(File)},
+   * a file which exists but cannot be read is an error, so that it is not overwritten.
+   */
+  private static List<UserScore> readForUpdate(File file) throws IOException {
+    if (!file.exists()) {
+      return new ArrayList<>();
+    }
+    try (InputStream is = new FileInputStream(file)) {
+      return new ArrayList<>(JsonCodec.scoreListReader().<List<UserScore>>readValue(is));
+    }
+  }
+
   /**
    * Reads from the highscore file and returns a list of UserScore objects. If the file cannot be
    * read, an empty list will be returned.
@@ -80,15 +122,39 @@ public class HighscoreFileManager {
    */
   public static List<UserScore> readFromHighscore(File file) {
     try (InputStream is = new FileInputStream(file)) {
-      ObjectMapper jsonReader = new ObjectMapper();
-      return jsonReader.readValue(is, new TypeReference<List<UserScore>>() {
-      });
+      return JsonCodec.scoreListReader().readValue(is);
     } catch (IOException e) {
       e.printStackTrace();
       return new ArrayList<UserScore>();
     }
   }
 
+  /**
+   * Reads the best scores from the highscore file, without reading the whole file into memory.
+   * The file is read one score at a time (see {@link HighscoreReader}), and reading stops as soon
+   * as enough scores have been found. If the file cannot be read, an empty list will be returned.
+
+   * @param file The file which is to be read.
+   * @param difficulty The difficulty to read scores for, or null for every difficulty.
+   * @param limit The largest number of scores to read.
+   * @return A list containing at most limit UserScores, in the order of the file.
+   */
+  public static List<UserScore> readFromHighscore(File file, String difficulty, int limit) {
+    List<UserScore> userScores = new ArrayList<>();
+    try (HighscoreReader reader = HighscoreReader.open(file)) {
+      while (userScores.size() < limit && reader.hasNext()) {
+        UserScore userScore = reader.next();
+        if (difficulty == null || difficulty.equals(userScore.getDifficulty())) {
+          userScores.add(userScore);
+        }
+      }
+      return userScores;
+    } catch (IOException | UncheckedIOException e) {
+      e.printStackTrace();
+      return new ArrayList<UserScore>();
+    }
+  }
+
   /**
    * Deletes a UserScore from the highscore file.
 
@@ -98,9 +164,15 @@ public class HighscoreFileManager {
    * @param gameDifficulty The difficulty of the game
    * @param file The file which is to be read.
    */
-  public static void deleteFromHighscore(String name, int time, String date,
+  public static synchronized void deleteFromHighscore(String name, int time, String date,
       String gameDifficulty, File file) {
-    List<UserScore> userScores = readFromHighscore(file);
+    List<UserScore> userScores;
+    try {
+      userScores = readForUpdate(file);
+    } catch (IOException e) {
+      e.printStackTrace();
+      return;
+    }
     userScores = userScores.stream()
         .filter(score -> !score.getName().equals(name)
             || score.getScore() != time || !score.getDate().equals(date)
@@ -112,7 +184,7 @@ public class HighscoreFileManager {
   /**
    * Removes all data from the highscore file.
    */
-  public static void clearHighscore(File file) {
+  public static synchronized void clearHighscore(File file) {
     writeToFile(new ArrayList<UserScore>(), file);
   }
 }
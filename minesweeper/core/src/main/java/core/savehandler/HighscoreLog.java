@@ -0,0 +1,524 @@
+package core.savehandler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import core.JsonCodec;
+import core.UserScore;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stores highscores as a sorted snapshot together with a log of newer scores.
+ *
+ * <p>{@link HighscoreFileManager#writeToHighscore} reads, sorts and rewrites the whole file for
+ * every new score. Here a new score is instead appended to the end of the log, one JSON object
+ * per line, which takes the same time no matter how many scores there are. When the log has
+ * grown long enough, it is merged into the snapshot in the background, and a new log is started.
+ *
+ * <p>The snapshot has the same format as before (a JSON array, sorted by score, lower scores
+ * first), so it can still be read with {@link HighscoreFileManager#readFromHighscore}. To see
+ * every score, including the ones which are only in the log, use {@link #readAll()}.
+ * The snapshot can also be written in the {@link BinaryHighscoreFile} format instead, see
+ * {@link SnapshotFormat}. Either format is read, no matter which one is written, so switching
+ * format converts the snapshot the next time the log is compacted.
+ *
+ * <p>The log works as a write-ahead log: a score is in the log before it is in the snapshot, and
+ * the log is read again every time the highscores are loaded, so a score is never lost because
+ * the program stopped before it was compacted. The snapshot is only ever replaced in one step
+ * (see {@link AtomicFile}), so it is never found half written. A compaction which was stopped
+ * half way is finished, or undone, the next time a HighscoreLog is created for the files.
+ */
+public class HighscoreLog implements AutoCloseable {
+
+  public static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+
+  /**
+   * The format the snapshot is written in.
+   */
+  public enum SnapshotFormat {
+    /** A pretty-printed JSON array, which {@link HighscoreFileManager} can read. */
+    JSON,
+    /** Fixed-width records, which are read through a memory-mapped file. */
+    BINARY
+  }
+
+  private static final Comparator<UserScore> BY_SCORE =
+      Comparator.comparingInt(UserScore::getScore);
+
+  private final File snapshotFile;
+  private final File logFile;
+  private final File compactingFile;
+  private final File nextSnapshotFile;
+  private final File mergedFile;
+  private final File rejectedFile;
+  private final int compactThreshold;
+  private final SnapshotFormat snapshotFormat;
+  private final ObjectReader lineReader;
+  private final ObjectReader snapshotReader;
+  private final ObjectWriter lineWriter;
+  private final ObjectWriter snapshotWriter;
+  private final ObjectWriter scoreArrayWriter;
+  private final ExecutorService compactor;
+  private final Object lock = new Object();
+  private final Object compactLock = new Object();
+  private int entriesInLog;
+  private boolean compacting;
+  // Changes every time the scores are cleared, so that a compaction which was started before
+  // the clear does not bring the old scores back.
+  private int generation;
+
+  /**
+   * Creates a highscore log which merges the log into the snapshot once it
+   * holds {@value #DEFAULT_COMPACT_THRESHOLD} scores.
+
+   * @param snapshotFile the file containing the sorted scores
+   * @param logFile the file new scores are appended to
+   */
+  public HighscoreLog(File snapshotFile, File logFile) {
+    this(snapshotFile, logFile, DEFAULT_COMPACT_THRESHOLD);
+  }
+
+  /**
+   * Creates a highscore log.
+
+   * @param snapshotFile the file containing the sorted scores
+   * @param logFile the file new scores are appended to
+   * @param compactThreshold how many scores the log holds before it is merged into the snapshot
+   */
+  public HighscoreLog(File snapshotFile, File logFile, int compactThreshold) {
+    this(snapshotFile, logFile, compactThreshold, SnapshotFormat.JSON);
+  }
+
+  /**
+   * Creates a highscore log.
+
+   * @param snapshotFile the file containing the sorted scores
+   * @param logFile the file new scores are appended to
+   * @param compactThreshold how many scores the log holds before it is merged into the snapshot
+   * @param snapshotFormat the format the snapshot is written in
+   */
+  public HighscoreLog(File snapshotFile, File logFile, int compactThreshold,
+      SnapshotFormat snapshotFormat) {
+    if (compactThreshold < 1) {
+      throw new IllegalArgumentException("The compact threshold must be at least 1");
+    }
+    this.snapshotFile = snapshotFile;
+    this.logFile = logFile;
+    this.compactingFile = new File(logFile.getPath() + ".compacting");
+    this.nextSnapshotFile = new File(snapshotFile.getPath() + ".next");
+    this.mergedFile = new File(logFile.getPath() + ".merged");
+    this.rejectedFile = new File(logFile.getPath() + ".rejected");
+    this.compactThreshold = compactThreshold;
+    this.snapshotFormat = snapshotFormat;
+
+    this.lineReader = JsonCodec.scoreReader();
+    this.snapshotReader = JsonCodec.scoreListReader();
+    this.lineWriter = JsonCodec.scoreWriter();
+    this.snapshotWriter = JsonCodec.scoreListWriter();
+    this.scoreArrayWriter = JsonCodec.scoreWriter().withDefaultPrettyPrinter();
+
+    this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "highscore-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    recover();
+    this.entriesInLog = readLog(logFile).size();
+  }
+
+  /**
+   * Appends a score to the log. If the log has grown long enough,
+   * it is merged into the snapshot in the background.
+
+   * @param userScore the score to add
+   * @throws IOException if the score could not be written
+   */
+  public void append(UserScore userScore) throws IOException {
+    appendAll(List.of(userScore));
+  }
+
+  /**
+   * Appends several scores to the log with a single write. If the log has grown long enough,
+   * it is merged into the snapshot in the background.
+
+   * @param userScores the scores to add
+   * @throws IOException if the scores could not be written
+   */
+  public void appendAll(List<UserScore> userScores) throws IOException {
+    appendAll(userScores, false);
+  }
+
+  /**
+   * Appends several scores to the log with a single write, and optionally waits until they are
+   * stored on the disk itself (fsync), so that they survive a crash or a power loss.
+   * Syncing costs about as much for one score as for many, which is why it is meant to be
+   * used for batches.
+
+   * @param userScores the scores to add
+   * @param sync whether to wait until the scores are stored on the disk
+   * @throws IOException if the scores could not be written
+   */
+  public void appendAll(List<UserScore> userScores, boolean sync) throws IOException {
+    StringBuilder lines = new StringBuilder();
+    for (UserScore userScore : userScores) {
+      lines.append(lineWriter.writeValueAsString(userScore)).append('\n');
+    }
+    ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+    synchronized (lock) {
+      try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+        long start = channel.size();
+        try {
+          while (bytes.hasRemaining()) {
+            channel.write(bytes);
+          }
+          if (sync) {
+            channel.force(false);
+          }
+        } catch (IOException e) {
+          // A partial line would have the next append written onto its end, so it is removed.
+          try {
+            channel.truncate(start);
+          } catch (IOException truncateFailed) {
+            e.addSuppressed(truncateFailed);
+          }
+          throw e;
+        }
+      }
+      entriesInLog += userScores.size();
+      if (entriesInLog >= compactThreshold && !compacting && !compactor.isShutdown()) {
+        compacting = true;
+        compactor.execute(this::compactQuietly);
+      }
+    }
+  }
+
+  /**
+   * Reads every score, both from the snapshot and from the log.
+
+   * @return all the scores, sorted by score, lower scores first
+   */
+  public List<UserScore> readAll() {
+    List<UserScore> snapshot;
+    List<UserScore> newer;
+    synchronized (lock) {
+      snapshot = readSnapshot();
+      newer = readLog(compactingFile);
+      newer.addAll(readLog(logFile));
+    }
+    return merge(snapshot, newer);
+  }
+
+  /**
+   * Merges the log into the snapshot right away, instead of waiting for it to grow long enough.
+   * Scores can still be added while this is running, but only one compaction runs at a time.
+
+   * @throws IOException if the new snapshot could not be written
+   */
+  public void compact() throws IOException {
+    synchronized (compactLock) {
+      compactLog();
+    }
+  }
+
+  private void compactLog() throws IOException {
+    int startGeneration;
+    synchronized (lock) {
+      // Scores added from now on go to a new log, so the one being merged does not change.
+      if (!compactingFile.exists() && logFile.exists()) {
+        AtomicFile.move(logFile.toPath(), compactingFile.toPath());
+        entriesInLog = 0;
+      }
+      startGeneration = generation;
+    }
+
+    List<UserScore> newer = readLog(compactingFile);
+    List<UserScore> rejected = new ArrayList<>();
+    if (snapshotFormat == SnapshotFormat.BINARY) {
+      // A score which does not fit in a record would stop every compaction from now on, so it
+      // is set aside instead.
+      for (UserScore userScore : newer) {
+        if (!BinaryHighscoreFile.canStore(userScore)) {
+          rejected.add(userScore);
+        }
+      }
+      newer.removeIf(userScore -> !BinaryHighscoreFile.canStore(userScore));
+    }
+    if (snapshotFormat == SnapshotFormat.JSON && !BinaryHighscoreFile.isBinary(snapshotFile)) {
+      AtomicFile.write(nextSnapshotFile, file -> mergeStreaming(newer, file));
+    } else {
+      List<UserScore> merged = merge(readSnapshotForMerge(), newer);
+      AtomicFile.write(nextSnapshotFile, file -> writeSnapshot(file, merged));
+    }
+
+    synchronized (lock) {
+      if (generation != startGeneration) {
+        Files.deleteIfExists(nextSnapshotFile.toPath());
+        return;
+      }
+      if (!rejected.isEmpty()) {
+        setAside(rejected);
+      }
+      // Renaming the merged log is what commits the compaction: from then on, its scores are
+      // read from the new snapshot, and recover() finishes the compaction if the program stops.
+      if (compactingFile.exists()) {
+        AtomicFile.move(compactingFile.toPath(), mergedFile.toPath());
+      }
+      AtomicFile.move(nextSnapshotFile.toPath(), snapshotFile.toPath());
+      Files.deleteIfExists(mergedFile.toPath());
+    }
+  }
+
+  /**
+   * Cleans up after a compaction which was stopped half way. If the merged log had been renamed,
+   * the compaction was committed, and the new snapshot is moved into place if it is not there
+   * yet. Otherwise, the new snapshot is thrown away, and the log which was being merged is read
+   * as part of the log, until the next compaction.
+   *
+   * <p>A line at the end of the log which was being written when the program stopped is also
+   * removed. It is skipped when the log is read anyway, but the next append would be written onto
+   * its end, and would then be skipped together with it.
+   */
+  private void recover() {
+    try {
+      truncatePartialLine(logFile);
+      if (mergedFile.exists()) {
+        if (nextSnapshotFile.exists()) {
+          AtomicFile.move(nextSnapshotFile.toPath(), snapshotFile.toPath());
+        }
+        Files.delete(mergedFile.toPath());
+      } else {
+        Files.deleteIfExists(nextSnapshotFile.toPath());
+      }
+      Files.deleteIfExists(AtomicFile.temporaryFile(snapshotFile).toPath());
+      Files.deleteIfExists(AtomicFile.temporaryFile(nextSnapshotFile).toPath());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not recover the highscores in " + snapshotFile, e);
+    }
+  }
+
+  /**
+   * Cuts a file back to just after its last newline.
+   */
+  private static void truncatePartialLine(File file) throws IOException {
+    if (!file.exists()) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      long size = channel.size();
+      long end = size;
+      ByteBuffer buffer = ByteBuffer.allocate(4096);
+      // Reads the file backwards a block at a time. A log which is whole ends with a newline, so
+      // usually only the last block is read.
+      while (end > 0) {
+        long start = Math.max(end - buffer.capacity(), 0);
+        buffer.clear().limit((int) (end - start));
+        while (buffer.hasRemaining()) {
+          if (channel.read(buffer, start + buffer.position()) < 0) {
+            break;
+          }
+        }
+        int newline = buffer.position() - 1;
+        while (newline >= 0 && buffer.get(newline) != '\n') {
+          newline--;
+        }
+        if (newline >= 0) {
+          end = start + newline + 1;
+          break;
+        }
+        end = start;
+      }
+      if (end < size) {
+        channel.truncate(end);
+        channel.force(false);
+      }
+    }
+  }
+
+  /**
+   * Removes every score, from both the snapshot and the log.
+
+   * @throws IOException if the files could not be cleared
+   */
+  public void clear() throws IOException {
+    synchronized (lock) {
+      generation++;
+      Files.deleteIfExists(logFile.toPath());
+      Files.deleteIfExists(compactingFile.toPath());
+      AtomicFile.write(snapshotFile, file -> writeSnapshot(file, new ArrayList<UserScore>()));
+      entriesInLog = 0;
+    }
+  }
+
+  /**
+   * Stops the background compaction. Scores which are only in the log stay there,
+   * and are merged the next time the log is compacted.
+   */
+  @Override
+  public void close() {
+    compactor.shutdown();
+  }
+
+  private void compactQuietly() {
+    try {
+      compact();
+    } catch (IOException e) {
+      // The scores are still in the log, so nothing is lost, and the next compaction retries.
+      e.printStackTrace();
+    } finally {
+      synchronized (lock) {
+        compacting = false;
+      }
+    }
+  }
+
+  /**
+   * Appends scores which cannot be stored in the snapshot to a file of their own, one JSON object
+   * per line like the log, so that they are not lost and can be looked at later.
+   */
+  private void setAside(List<UserScore> rejected) throws IOException {
+    StringBuilder lines = new StringBuilder();
+    for (UserScore userScore : rejected) {
+      System.err.println("Setting aside a highscore which cannot be stored in " + snapshotFile
+          + ": " + userScore);
+      lines.append(lineWriter.writeValueAsString(userScore)).append('\n');
+    }
+    Files.writeString(rejectedFile.toPath(), lines, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  private List<UserScore> readSnapshot() {
+    if (!snapshotFile.exists()) {
+      return new ArrayList<>();
+    }
+    try {
+      if (BinaryHighscoreFile.isBinary(snapshotFile)) {
+        return BinaryHighscoreFile.read(snapshotFile);
+      }
+      return new ArrayList<>(snapshotReader.<List<UserScore>>readValue(snapshotFile));
+    } catch (IOException e) {
+      e.printStackTrace();
+      return new ArrayList<>();
+    }
+  }
+
+  /**
+   * Reads the snapshot which is about to be replaced. Unlike {@link #readSnapshot()}, a snapshot
+   * which exists but cannot be read is an error, so that it is not replaced by the log alone.
+   */
+  private List<UserScore> readSnapshotForMerge() throws IOException {
+    if (snapshotFile.length() == 0) {
+      return new ArrayList<>();
+    } else if (BinaryHighscoreFile.isBinary(snapshotFile)) {
+      return BinaryHighscoreFile.read(snapshotFile);
+    }
+    return new ArrayList<>(snapshotReader.<List<UserScore>>readValue(snapshotFile));
+  }
+
+  private void writeSnapshot(File file, List<UserScore> userScores) throws IOException {
+    if (snapshotFormat == SnapshotFormat.BINARY) {
+      try {
+        BinaryHighscoreFile.write(userScores, file);
+      } catch (IllegalArgumentException e) {
+        // Reported like any other failed write, so the scores stay in the log.
+        throw new IOException("Could not write the highscores to " + file, e);
+      }
+    } else {
+      snapshotWriter.writeValue(file, userScores);
+    }
+  }
+
+  /**
+   * Reads the scores in a log file, one per line. A line which cannot be read, like the last
+   * line of a log which was being written when the program stopped, is skipped.
+   */
+  private List<UserScore> readLog(File file) {
+    List<UserScore> userScores = new ArrayList<>();
+    if (!file.exists()) {
+      return userScores;
+    }
+
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        try {
+          userScores.add(lineReader.readValue(line));
+        } catch (JsonProcessingException e) {
+          System.err.println("Skipping unreadable highscore in " + file + ": " + line);
+        }
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    return userScores;
+  }
+
+  /**
+   * Does the same as {@link #merge}, but reads the JSON snapshot one score at a time, and writes
+   * every score as soon as its place is known. So only the newer scores are kept in memory, no
+   * matter how large the snapshot is. Unlike {@link #readSnapshot()}, a snapshot which cannot be
+   * read stops the compaction, instead of being replaced by the newer scores alone.
+   */
+  private void mergeStreaming(List<UserScore> newer, File file) throws IOException {
+    newer.sort(BY_SCORE);
+    int j = 0;
+    try (SequenceWriter out = scoreArrayWriter.writeValuesAsArray(file)) {
+      if (snapshotFile.length() > 0) {
+        try (HighscoreReader snapshot = HighscoreReader.open(snapshotFile)) {
+          while (snapshot.hasNext()) {
+            UserScore userScore = snapshot.next();
+            while (j < newer.size() && BY_SCORE.compare(newer.get(j), userScore) < 0) {
+              out.write(newer.get(j++));
+            }
+            out.write(userScore);
+          }
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+      }
+      while (j < newer.size()) {
+        out.write(newer.get(j++));
+      }
+    }
+  }
+
+  /**
+   * Merges the sorted snapshot with the newer scores. Scores which are equal keep their order,
+   * with the snapshot first, just like when every score was added with a stable sort.
+   */
+  private static List<UserScore> merge(List<UserScore> snapshot, List<UserScore> newer) {
+    newer.sort(BY_SCORE);
+    List<UserScore> merged = new ArrayList<>(snapshot.size() + newer.size());
+    int i = 0;
+    int j = 0;
+    while (i < snapshot.size() && j < newer.size()) {
+      if (BY_SCORE.compare(newer.get(j), snapshot.get(i)) < 0) {
+        merged.add(newer.get(j++));
+      } else {
+        merged.add(snapshot.get(i++));
+      }
+    }
+    merged.addAll(snapshot.subList(i, snapshot.size()));
+    merged.addAll(newer.subList(j, newer.size()));
+    return merged;
+  }
+}
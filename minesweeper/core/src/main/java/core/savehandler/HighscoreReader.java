@@ -0,0 +1,102 @@
+package core.savehandler;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import core.JsonCodec;
+import core.UserScore;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the scores in a highscore file one at a time, instead of binding the whole file to a list.
+ *
+ * <p>The file is read with a streaming {@link JsonParser}, and only the score which is being
+ * returned is turned into an object. So the memory used stays the same no matter how large the
+ * file is, and a reader which only needs the first scores can stop early without reading the rest
+ * of the file.
+ */
+public final class HighscoreReader implements Iterator<UserScore>, AutoCloseable {
+
+  private final JsonParser parser;
+  private boolean hasNext;
+
+  private HighscoreReader(JsonParser parser) throws IOException {
+    this.parser = parser;
+    if (parser.nextToken() != JsonToken.START_ARRAY) {
+      parser.close();
+      throw new IOException("A highscore file must contain a JSON array");
+    }
+    advance();
+  }
+
+  /**
+   * Opens a highscore file for reading.
+
+   * @param file the file to read
+   * @return a reader, which must be closed
+   * @throws IOException if the file could not be opened, or does not contain a JSON array
+   */
+  public static HighscoreReader open(File file) throws IOException {
+    return new HighscoreReader(JsonCodec.factory().createParser(file));
+  }
+
+  /**
+   * Opens a stream of highscores, like the body of a response from the server, for reading.
+
+   * @param inputStream the stream to read, which is closed when the reader is closed
+   * @return a reader, which must be closed
+   * @throws IOException if the stream could not be read, or does not contain a JSON array
+   */
+  public static HighscoreReader open(InputStream inputStream) throws IOException {
+    return new HighscoreReader(JsonCodec.factory().createParser(inputStream));
+  }
+
+  @Override
+  public boolean hasNext() {
+    return hasNext;
+  }
+
+  /**
+   * Reads the next score.
+
+   * @return the next score in the file
+   * @throws NoSuchElementException if every score has been read
+   * @throws UncheckedIOException if the file could not be read, or is not a valid highscore file
+   */
+  @Override
+  public UserScore next() {
+    if (!hasNext) {
+      throw new NoSuchElementException();
+    }
+    try {
+      UserScore userScore = JsonCodec.scoreReader().readValue(parser);
+      advance();
+      return userScore;
+    } catch (IOException e) {
+      hasNext = false;
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+
+  private void advance() throws IOException {
+    JsonToken token = parser.nextToken();
+    if (token == JsonToken.END_ARRAY) {
+      hasNext = false;
+    } else if (token == JsonToken.START_OBJECT) {
+      hasNext = true;
+    } else {
+      hasNext = false;
+      throw new IOException("Expected a highscore, but found " + token + " at "
+          + parser.getCurrentLocation());
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package core.savehandler;
+
+import core.UserScore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Sends every new highscore through a single writer thread, so that writes never interleave.
+ *
+ * <p>Scores which arrive while the writer is busy wait in a queue. When the writer is ready, it
+ * takes every waiting score (up to a maximum) and appends them to the {@link HighscoreLog} with a
+ * single write. So a burst of submissions, like at the end of a tournament round, costs a few
+ * large writes instead of one write per score.
+ *
+ * <p>Several scores can also be submitted together with {@link #submitAll(List)}. They are
+ * always written in the same batch, with the same write, so a client which sends many scores at
+ * once, for example after being offline, costs a single write.
+ *
+ * <p>Every batch is synced to the disk (fsync) before its submitters are told it is written, so
+ * a score which has been acknowledged survives a crash or a power loss. In group commit mode, the
+ * writer also waits a short window after the first score of a batch arrives, to collect the
+ * scores which arrive right after it into the same fsync. This adds at most the window to every
+ * submission, but a single fsync usually takes several milliseconds, so sharing it between many
+ * scores writes many more scores per second than syncing small batches one after another.
+ *
+ * <p>If the writer thread is interrupted, it stops, and every score which is still queued fails
+ * with an {@link IllegalStateException}, just like scores submitted after {@link #close()}.
+ */
+public class HighscoreWriteQueue implements AutoCloseable {
+
+  public static final int DEFAULT_MAX_BATCH_SIZE = 512;
+
+  private final HighscoreLog highscoreLog;
+  private final Consumer<List<UserScore>> onWritten;
+  private final int maxBatchSize;
+  private final long groupCommitWindowNanos;
+  private final boolean groupCommit;
+  private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+  private final Thread writer;
+  private final Object lock = new Object();
+  private boolean closed;
+
+  /**
+   * Creates a write queue, and starts its writer thread. Scores are written and synced as soon as
+   * the writer is ready.
+
+   * @param highscoreLog the log the scores are written to
+   * @param onWritten called on the writer thread with every batch of scores once they are
+   *     written, before the submitters are told, for example to update scores kept in memory.
+   *     If it throws, the exception is printed, and the submitters are still told the scores
+   *     are written, since they are.
+   * @param maxBatchSize the largest number of scores written at once. Scores submitted together
+   *     are never split, so a batch can be larger by the scores of one submission.
+   */
+  public HighscoreWriteQueue(HighscoreLog highscoreLog, Consumer<List<UserScore>> onWritten,
+      int maxBatchSize) {
+    this(highscoreLog, onWritten, maxBatchSize, null);
+  }
+
+  /**
+   * Creates a write queue, and starts its writer thread.
+
+   * @param highscoreLog the log the scores are written to
+   * @param onWritten called on the writer thread with every batch of scores once they are
+   *     written, before the submitters are told, for example to update scores kept in memory.
+   *     If it throws, the exception is printed, and the submitters are still told the scores
+   *     are written, since they are.
+   * @param maxBatchSize the largest number of scores written at once. Scores submitted together
+   *     are never split, so a batch can be larger by the scores of one submission.
+   * @param groupCommitWindow how long to collect scores before syncing them to the disk
+   *     together, or null to write and sync them as soon as the writer is ready
+   */
+  public HighscoreWriteQueue(HighscoreLog highscoreLog, Consumer<List<UserScore>> onWritten,
+      int maxBatchSize, Duration groupCommitWindow) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be at least 1");
+    }
+    if (groupCommitWindow != null && groupCommitWindow.isNegative()) {
+      throw new IllegalArgumentException("The group commit window can not be negative");
+    }
+    this.highscoreLog = highscoreLog;
+    this.onWritten = onWritten;
+    this.maxBatchSize = maxBatchSize;
+    this.groupCommit = groupCommitWindow != null;
+    this.groupCommitWindowNanos = groupCommit ? groupCommitWindow.toNanos() : 0;
+    this.writer = new Thread(this::writeBatches, "highscore-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Queues a score to be written.
+
+   * @param userScore the score to write
+   * @return a future which completes once the score is written,
+   *     or fails with the reason it could not be written
+   */
+  public CompletableFuture<Void> submit(UserScore userScore) {
+    return submitAll(List.of(userScore));
+  }
+
+  /**
+   * Queues several scores to be written together, with a single write.
+
+   * @param userScores the scores to write, in order
+   * @return a future which completes once all the scores are written,
+   *     or fails with the reason they could not be written
+   */
+  public CompletableFuture<Void> submitAll(List<UserScore> userScores) {
+    if (userScores.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    PendingWrite pending = new PendingWrite(List.copyOf(userScores));
+    synchronized (lock) {
+      if (closed) {
+        return CompletableFuture.failedFuture(
+            new IllegalStateException("The highscore write queue is closed"));
+      }
+      queue.add(pending);
+    }
+    return pending.future;
+  }
+
+  /**
+   * Writes the scores which are still queued, and stops the writer thread.
+   */
+  @Override
+  public void close() {
+    synchronized (lock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      queue.add(PendingWrite.STOP);
+    }
+
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeBatches() {
+    List<PendingWrite> batch = new ArrayList<>();
+    try {
+      boolean stopping = false;
+      while (!stopping) {
+        PendingWrite first = queue.take();
+        batch.add(first);
+        int size = drain(batch, first.userScores.size());
+        if (groupCommit) {
+          collectUntilWindowEnds(batch, size);
+        }
+        stopping = batch.remove(PendingWrite.STOP);
+        // Nothing is queued after STOP, so whatever is left can be written as the last batch.
+        if (stopping) {
+          queue.drainTo(batch);
+          batch.remove(PendingWrite.STOP);
+        }
+
+        write(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      // The writer was stopped from outside. The scores which are left are failed below.
+    } finally {
+      failUnwritten(batch);
+    }
+  }
+
+  /**
+   * Fails every submission which will never be written, because the writer has stopped, so that
+   * no submitter waits for it forever. New submissions are refused from now on.
+   */
+  private void failUnwritten(List<PendingWrite> batch) {
+    synchronized (lock) {
+      closed = true;
+    }
+    queue.drainTo(batch);
+    IllegalStateException stopped =
+        new IllegalStateException("The highscore writer stopped before the scores were written");
+    batch.forEach(pending -> pending.future.completeExceptionally(stopped));
+  }
+
+  /**
+   * Moves waiting submissions into the batch until it has the largest number of scores, and
+   * returns the number of scores in the batch.
+   */
+  private int drain(List<PendingWrite> batch, int size) {
+    PendingWrite next;
+    while (size < maxBatchSize && (next = queue.poll()) != null) {
+      batch.add(next);
+      size += next.userScores.size();
+    }
+    return size;
+  }
+
+  private void collectUntilWindowEnds(List<PendingWrite> batch, int size) {
+    long deadline = System.nanoTime() + groupCommitWindowNanos;
+    while (size < maxBatchSize && !batch.contains(PendingWrite.STOP)) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return;
+      }
+      try {
+        PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+        if (next == null) {
+          return;
+        }
+        batch.add(next);
+        size += next.userScores.size();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      size = drain(batch, size);
+    }
+  }
+
+  private void write(List<PendingWrite> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    List<UserScore> userScores = new ArrayList<>();
+    batch.forEach(pending -> userScores.addAll(pending.userScores));
+    try {
+      highscoreLog.appendAll(userScores, true);
+    } catch (Exception e) {
+      batch.forEach(pending -> pending.future.completeExceptionally(e));
+      return;
+    }
+
+    try {
+      onWritten.accept(userScores);
+    } catch (RuntimeException e) {
+      // The scores are in the log already, so the submitters are still told they are written.
+      e.printStackTrace();
+    }
+    batch.forEach(pending -> pending.future.complete(null));
+  }
+
+  /**
+   * Scores which were submitted together, and the future of the submitter.
+   */
+  private static final class PendingWrite {
+    private static final PendingWrite STOP = new PendingWrite(List.of());
+
+    private final List<UserScore> userScores;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    private PendingWrite(List<UserScore> userScores) {
+      this.userScores = userScores;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package core.settings;
+
+/**
+ * This enum is used to choose how a game board stores the state of its tiles.
+ *
+ * <p>TILES keeps one Tile object per cell, which is what the desktop game has always used.
+ * PACKED keeps all the state in flat primitive arrays and bitsets, and only creates Tile objects
+ * when they are asked for. PACKED uses a fraction of the memory, which makes it the better
+ * choice for very large boards, or when a server hosts many boards at the same time.
+ *
+ * <p>A board which is not given a storage mode uses {@link #forBoard(Difficulty)}, so boards
+ * up to {@value #MAX_TILE_OBJECTS} tiles keep their Tile objects, and larger ones are packed.
+ */
+public enum BoardStorageMode {
+  TILES,
+  PACKED;
+
+  /**
+   * The largest board which is stored as Tile objects by default. Every Tile is an object of
+   * its own, in a list of rows, so a board of this size already takes tens of megabytes, while
+   * {@link CustomDifficulty#MAX_TILES} tiles would not fit in a normal heap at all.
+   */
+  public static final long MAX_TILE_OBJECTS = 1_000_000L;
+
+  /**
+   * Chooses the storage mode for a board: TILES for the usual boards, and PACKED for boards
+   * with more than {@value #MAX_TILE_OBJECTS} tiles.
+
+   * @param difficulty the settings of the board
+   * @return the storage mode to use
+   */
+  public static BoardStorageMode forBoard(Difficulty difficulty) {
+    long tiles = (long) difficulty.getGridWidth() * difficulty.getGridHeight();
+    return tiles > MAX_TILE_OBJECTS ? PACKED : TILES;
+  }
+}
@@ -0,0 +1,140 @@
+package core.settings;
+
+/**
+ * A difficulty where the size of the board and the number of bombs are chosen freely,
+ * for example for tournaments or load tests with very large boards.
+ *
+ * <p>The name of a custom difficulty contains its settings, for example "CUSTOM_30x16_99" for
+ * a 30 tiles wide and 16 tiles high board with 99 bombs. So highscores for the same custom
+ * settings end up in the same leaderboard.
+ */
+public final class CustomDifficulty implements Difficulty {
+
+  /**
+   * The largest number of tiles a board can have. A packed board of this size needs
+   * about 140 MB, and the index of every tile still fits comfortably in an int. Boards
+   * this large are packed unless another storage mode is asked for, see
+   * {@link BoardStorageMode#forBoard(Difficulty)}.
+   */
+  public static final long MAX_TILES = 100_000_000L;
+
+  static final String NAME_PREFIX = "CUSTOM_";
+
+  private static final int SQUARE_SIZE = 30;
+
+  private final int gridWidth;
+  private final int gridHeight;
+  private final int numBombs;
+
+  /**
+   * Creates a custom difficulty.
+
+   * @param gridWidth the number of tiles in each row
+   * @param gridHeight the number of rows
+   * @param numBombs the number of bombs
+   * @throws IllegalArgumentException if the board is too small or too large, or if there is
+   *     not room for the bombs, since the first click and its neighbors never hold a bomb
+   */
+  public CustomDifficulty(int gridWidth, int gridHeight, int numBombs) {
+    if (gridWidth < 1 || gridHeight < 1) {
+      throw new IllegalArgumentException("The board must be at least 1x1, was "
+          + gridWidth + "x" + gridHeight);
+    }
+
+    long tiles = (long) gridWidth * gridHeight;
+    if (tiles > MAX_TILES) {
+      throw new IllegalArgumentException("The board can have at most " + MAX_TILES
+          + " tiles, " + gridWidth + "x" + gridHeight + " has " + tiles);
+    }
+
+    // Nine tiles are kept free of bombs around the first click.
+    long room = Math.max(tiles - 9, 0);
+    if (numBombs < 1 || numBombs > room) {
+      throw new IllegalArgumentException("A " + gridWidth + "x" + gridHeight
+          + " board must have between 1 and " + room + " bombs, was " + numBombs);
+    }
+
+    this.gridWidth = gridWidth;
+    this.gridHeight = gridHeight;
+    this.numBombs = numBombs;
+  }
+
+  /**
+   * Reads a custom difficulty from its name, see {@link #getName()}.
+
+   * @param name the name, for example "CUSTOM_30x16_99"
+   * @return the custom difficulty
+   * @throws IllegalArgumentException if the name is not a valid custom difficulty
+   */
+  public static CustomDifficulty fromName(String name) {
+    String[] parts = name.startsWith(NAME_PREFIX)
+        ? name.substring(NAME_PREFIX.length()).split("[x_]")
+        : new String[0];
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Invalid custom difficulty: " + name);
+    }
+
+    try {
+      return new CustomDifficulty(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+          Integer.parseInt(parts[2]));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid custom difficulty: " + name, e);
+    }
+  }
+
+  @Override
+  public int getGridWidth() {
+    return gridWidth;
+  }
+
+  @Override
+  public int getGridHeight() {
+    return gridHeight;
+  }
+
+  @Override
+  public int getNumBombs() {
+    return numBombs;
+  }
+
+  // The stage grows with the board, in the same way as for the fixed difficulties.
+  @Override
+  public int getStageMinWidth() {
+    return gridWidth * SQUARE_SIZE + 320;
+  }
+
+  @Override
+  public int getStageMinHeight() {
+    return gridHeight * SQUARE_SIZE + 150;
+  }
+
+  @Override
+  public int getSquareSize() {
+    return SQUARE_SIZE;
+  }
+
+  @Override
+  public String getName() {
+    return NAME_PREFIX + gridWidth + "x" + gridHeight + "_" + numBombs;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof CustomDifficulty)) {
+      return false;
+    }
+    CustomDifficulty difficulty = (CustomDifficulty) other;
+    return gridWidth == difficulty.gridWidth && gridHeight == difficulty.gridHeight
+        && numBombs == difficulty.numBombs;
+  }
+
+  @Override
+  public int hashCode() {
+    return getName().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return getName();
+  }
+}
@@ -0,0 +1,47 @@
+package core.settings;
+
+/**
+ * This interface contains everything a game board and the game page need to know about
+ * a difficulty. It is implemented by the fixed difficulties in {@link GameDifficulty},
+ * and by {@link CustomDifficulty}, where the player chooses the size and number of bombs.
+ */
+public interface Difficulty {
+
+  public int getGridWidth();
+
+  public int getGridHeight();
+
+  public int getNumBombs();
+
+  public int getStageMinWidth();
+
+  public int getStageMinHeight();
+
+  public int getSquareSize();
+
+  /**
+   * Returns the name of the difficulty. This is the name stored with highscores,
+   * and it can be turned back into the difficulty with {@link #fromName(String)}.
+
+   * @return the name of the difficulty
+   */
+  public String getName();
+
+  /**
+   * Finds the difficulty with the given name. The name is either the name of one of the fixed
+   * difficulties, like "EASY", or the name of a custom difficulty, like "CUSTOM_30x16_99".
+
+   * @param name the name of the difficulty
+   * @return the difficulty with the given name
+   * @throws IllegalArgumentException if the name is not a valid difficulty
+   */
+  public static Difficulty fromName(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("Missing game difficulty");
+    }
+    if (name.startsWith(CustomDifficulty.NAME_PREFIX)) {
+      return CustomDifficulty.fromName(name);
+    }
+    return GameDifficulty.valueOf(name);
+  }
+}
@@ -14,8 +14,10 @@ package core.settings;
  * and add new difficulties. For example, if we wanted to add a new difficulty called
  * "EXTREME", we would only have to add a new enum value, and then set the appropriate
  * values for the board size, number of bombs, minimum stage size and square size.
+ *
+ * <p>Boards of any other size can be played with a {@link CustomDifficulty}.
  */
-public enum GameDifficulty {
+public enum GameDifficulty implements Difficulty {
   TEST(5, 5, 5, 300, 300, 30),
   EASY(7, 7, 10, 540, 360, 30),
   MEDIUM(12, 10, 20, 680, 450, 30),
@@ -38,27 +40,38 @@ public enum GameDifficulty {
     this.squareSize = squareSize;
   }
 
+  @Override
   public int getGridWidth() {
     return gridWidth;
   }
 
+  @Override
   public int getGridHeight() {
     return gridHeight;
   }
 
+  @Override
   public int getNumBombs() {
     return numBombs;
   }
 
+  @Override
   public int getStageMinWidth() {
     return stageMinWidth;
   }
 
+  @Override
   public int getStageMinHeight() {
     return stageMinHeight;
   }
 
+  @Override
   public int getSquareSize() {
     return squareSize;
   }
+
+  @Override
+  public String getName() {
+    return name();
+  }
 }
@@ -3,20 +3,21 @@ package core.settings;
 /**
  * SettingsManager keeps track of the current settings of the game.
  * There are two main settings: game difficulty and theme.
- * The game difficulty can be set to EASY, MEDIUM or HARD, and
+ * The game difficulty can be set to EASY, MEDIUM, HARD or a custom difficulty, and
  * the theme can be set to LIGHT or DARK.
  * 
  * <p>The standard settings are EASY and LIGHT.
 
  * @see GameDifficulty
+ * @see CustomDifficulty
  * @see ThemeSettings
  */
 public class SettingsManager {
 
-  private static GameDifficulty gameDifficulty = GameDifficulty.EASY;
+  private static Difficulty gameDifficulty = GameDifficulty.EASY;
   private static ThemeSettings themeSettings = ThemeSettings.LIGHT;
 
-  public static void setGameDifficulty(GameDifficulty gameDifficulty) {
+  public static void setGameDifficulty(Difficulty gameDifficulty) {
     SettingsManager.gameDifficulty = gameDifficulty;
   }
 
@@ -24,7 +25,7 @@ public class SettingsManager {
     SettingsManager.themeSettings = themeSettings;
   }
 
-  public static GameDifficulty getGameDifficulty() {
+  public static Difficulty getGameDifficulty() {
     return gameDifficulty;
   }
 
@@ -45,7 +46,7 @@ public class SettingsManager {
   }
 
   public static String getGameDifficultyAsString() {
-    return gameDifficulty.toString();
+    return gameDifficulty.getName();
   }
 
 }
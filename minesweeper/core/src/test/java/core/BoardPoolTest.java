@@ -0,0 +1,85 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import core.settings.BoardStorageMode;
+import core.settings.GameDifficulty;
+
+public class BoardPoolTest {
+
+  private BoardPool boardPool;
+
+  @BeforeEach
+  public void setup() {
+    boardPool = new BoardPool(4, 2);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    boardPool.close();
+  }
+
+  @Test
+  @DisplayName("Ensure that pooled layouts keep every kind of first click safe")
+  public void testTakeKeepsFirstClickSafe() {
+    GameDifficulty difficulty = GameDifficulty.HARD;
+    int width = difficulty.getGridWidth();
+    int height = difficulty.getGridHeight();
+    int[][] clicks = {
+      { 0, 0 }, { width - 1, 0 }, { 0, height - 1 }, { width - 1, height - 1 }, // corners
+      { 5, 0 }, { 5, height - 1 }, { 0, 5 }, { width - 1, 5 }, // edges
+      { 1, 1 }, { 7, 6 }, { width - 2, height - 2 } // interior
+    };
+
+    for (int[] click : clicks) {
+      int[] bombs = boardPool.take(difficulty, click[0], click[1]).getBombIndexes();
+      assertEquals(difficulty.getNumBombs(), Arrays.stream(bombs).distinct().count(),
+          "Every bomb should be on its own tile.");
+      for (int bomb : bombs) {
+        boolean nextToClick = Math.abs(bomb % width - click[0]) <= 1
+            && Math.abs(bomb / width - click[1]) <= 1;
+        assertFalse(nextToClick, "No bomb should be next to the first click "
+            + Arrays.toString(click));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Ensure that a pooled board can be generated again from its seed")
+  public void testPooledBoardIsReproducible() {
+    GameBoard pooled = new GameBoard(GameDifficulty.MEDIUM, BoardStorageMode.PACKED, boardPool);
+    pooled.tileClicked(11, 4);
+
+    GameBoard replayed = new GameBoard(GameDifficulty.MEDIUM, pooled.getSeed());
+    replayed.tileClicked(11, 4);
+
+    for (int x = 0; x < pooled.getWidth(); x++) {
+      for (int y = 0; y < pooled.getHeight(); y++) {
+        assertEquals(pooled.getTile(x, y).isBomb(), replayed.getTile(x, y).isBomb(),
+            "The replayed board should have the same bombs as the pooled board.");
+        assertEquals(pooled.getTile(x, y).getNumBombsAround(),
+            replayed.getTile(x, y).getNumBombsAround());
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Ensure that prefill generates layouts in the background")
+  public void testPrefill() {
+    boardPool.prefill(GameDifficulty.EASY);
+
+    assertTrue(boardPool.awaitRefills(10, TimeUnit.SECONDS), "The refills should finish.");
+    assertEquals(4, boardPool.getReadyLayouts(GameDifficulty.EASY, 3, 3),
+        "The interior queue should be filled up.");
+  }
+}
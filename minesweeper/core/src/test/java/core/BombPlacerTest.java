@@ -0,0 +1,70 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BombPlacerTest {
+
+  private final SplittableRandom random = new SplittableRandom(42);
+
+  @Test
+  @DisplayName("Ensure that a sparse board gets distinct bombs away from the first click")
+  public void testSparsePlacement() {
+    int width = 1000;
+    int height = 1000;
+    int[] bombs = BombPlacer.place(width, height, 1000, 500, 500, random);
+    assertValidPlacement(width, height, 1000, 500, 500, bombs);
+  }
+
+  @Test
+  @DisplayName("Ensure that a board can be filled with bombs everywhere except the first click")
+  public void testFullDensityPlacement() {
+    int width = 30;
+    int height = 16;
+    int numBombs = width * height - 4; // A corner click only protects four tiles.
+    int[] bombs = BombPlacer.place(width, height, numBombs, 0, 0, random);
+    assertValidPlacement(width, height, numBombs, 0, 0, bombs);
+  }
+
+  @Test
+  @DisplayName("Ensure that the sparse shuffle chooses the same bombs as the dense one")
+  public void testSparseMatchesDense() {
+    for (int numBombs : new int[] { 1, 10, 2000, 50_000 }) {
+      assertArrayEquals(BombPlacer.shuffleDense(100_000, numBombs, new SplittableRandom(7)),
+          BombPlacer.shuffleSparse(100_000, numBombs, new SplittableRandom(7)),
+          "The shuffles should agree for " + numBombs + " bombs.");
+    }
+  }
+
+  @Test
+  @DisplayName("Ensure that asking for too many bombs fails instead of looping forever")
+  public void testTooManyBombs() {
+    assertThrows(IllegalArgumentException.class,
+        () -> BombPlacer.place(5, 5, 17, 2, 2, random));
+  }
+
+  private void assertValidPlacement(int width, int height, int numBombs, int startX, int startY,
+      int[] bombs) {
+    assertEquals(numBombs, bombs.length, "Every bomb should be placed.");
+
+    BitSet seen = new BitSet(width * height);
+    for (int index : bombs) {
+      assertFalse(seen.get(index), "Bomb " + index + " was placed twice.");
+      seen.set(index);
+
+      int x = index % width;
+      int y = index / width;
+      boolean nextToStart = Math.abs(x - startX) <= 1 && Math.abs(y - startY) <= 1;
+      assertFalse(nextToStart, "Bomb " + index + " is next to the first click.");
+      assertEquals(true, index >= 0 && index < width * height, "Bomb is outside the board.");
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EndlessBoardTest {
+
+  @Test
+  @DisplayName("Ensure that the start is safe, and that numbers match the bombs around them")
+  public void testStartAndNumbers() {
+    EndlessBoard board = new EndlessBoard(7L, 0.2);
+    int opened = board.reveal(0, 0);
+
+    assertEquals(false, board.isGameLost(), "The start should never be a bomb.");
+    assertTrue(opened >= 1);
+    assertEquals(opened, board.getRevealedTiles());
+
+    for (int x = -40; x <= 40; x++) {
+      for (int y = -40; y <= 40; y++) {
+        int count = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+          for (int dy = -1; dy <= 1; dy++) {
+            if ((dx != 0 || dy != 0) && board.isBomb(x + dx, y + dy)) {
+              count++;
+            }
+          }
+        }
+        assertEquals(count, board.getNumBombsAround(x, y),
+            "The number at (" + x + ", " + y + ") should match the bombs around it.");
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Ensure that boards with the same seed are the same world")
+  public void testSameSeed() {
+    EndlessBoard first = new EndlessBoard(42L, 0.3);
+    EndlessBoard second = new EndlessBoard(42L, 0.3, 1);
+
+    for (int x = -100; x <= 100; x += 7) {
+      for (int y = 1_000_000; y <= 1_000_200; y += 3) {
+        assertEquals(first.isBomb(x, y), second.isBomb(x, y));
+        assertEquals(first.getNumBombsAround(x, y), second.getNumBombsAround(x, y));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Ensure that revealed tiles and flags survive chunks being unloaded")
+  public void testUnloadKeepsState() {
+    // With this many bombs, the reveal at (0, 0) stops right after the safe tiles around it.
+    EndlessBoard board = new EndlessBoard(3L, 0.9, 2);
+    board.reveal(0, 0);
+    board.toggleFlag(100, 100);
+
+    // Touch chunks far away, so that the first ones are unloaded.
+    for (int i = 1; i <= 10; i++) {
+      board.getNumBombsAround(i * 1000, -i * 1000);
+    }
+
+    assertEquals(2, board.getLoadedChunks(), "Only two chunks should be loaded.");
+    // The safe tiles around (0, 0) lie in the four chunks meeting there, and the flag in a fifth.
+    assertEquals(5 + 2, board.getStoredChunks(),
+        "Only the chunks the player has changed, and the loaded ones, should be kept.");
+    assertEquals(9, board.getRevealedTiles());
+    assertEquals(true, board.isRevealed(0, 0));
+    assertEquals(true, board.isFlagged(100, 100));
+    assertEquals(0, board.reveal(0, 0), "A revealed tile should not be revealed again.");
+  }
+
+  @Test
+  @DisplayName("Ensure that revealing a bomb loses the game")
+  public void testRevealBomb() {
+    EndlessBoard board = new EndlessBoard(11L, 0.5);
+    int x = 10;
+    while (!board.isBomb(x, 10)) {
+      x++;
+    }
+
+    board.toggleFlag(x, 10);
+    assertEquals(0, board.reveal(x, 10), "A flagged tile should not be revealed.");
+    board.toggleFlag(x, 10);
+
+    assertEquals(1, board.reveal(x, 10));
+    assertEquals(true, board.isGameLost());
+    assertEquals(0, board.reveal(0, 0), "Nothing should be revealed after the game is lost.");
+  }
+
+  @Test
+  public void testInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> new EndlessBoard(1L, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> new EndlessBoard(1L, Double.NaN));
+    assertThrows(IllegalArgumentException.class, () -> new EndlessBoard(1L, 0.2, 0));
+  }
+}
@@ -0,0 +1,57 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FloodFillTest {
+
+  @Test
+  @DisplayName("Ensure that a huge empty board can be revealed without overflowing the stack")
+  public void testRevealHugeEmptyBoard() {
+    int width = 2000;
+    int height = 1000;
+    PackedBoardStorage storage = new PackedBoardStorage(width, height);
+    FloodFill floodFill = new FloodFill(width, height);
+
+    int[] opened = floodFill.reveal(storage, 0);
+
+    assertEquals(width * height, opened.length, "Every tile should be opened.");
+    assertEquals(true, storage.isRevealed(width * height - 1),
+        "The opposite corner should be revealed.");
+  }
+
+  @Test
+  @DisplayName("Ensure that the flood fill stops at numbers and leaves flags alone")
+  public void testRevealStopsAtNumbersAndFlags() {
+    // A 4x3 board with a single bomb in the top right corner:
+    // 0 0 1 B
+    // 0 0 1 1
+    // 0 0 0 0
+    int width = 4;
+    int height = 3;
+    PackedBoardStorage storage = new PackedBoardStorage(width, height);
+    storage.makeBomb(3);
+    storage.incrementNumBombsAround(2);
+    storage.incrementNumBombsAround(6);
+    storage.incrementNumBombsAround(7);
+    storage.toggleFlag(8);
+
+    FloodFill floodFill = new FloodFill(width, height);
+    int[] opened = floodFill.reveal(storage, 0);
+    Arrays.sort(opened);
+
+    assertEquals("[0, 1, 2, 4, 5, 6, 7, 9, 10, 11]", Arrays.toString(opened),
+        "All tiles except the bomb and the flag should be opened.");
+    assertEquals(false, storage.isRevealed(3), "The bomb should not be revealed.");
+    assertEquals(false, storage.isRevealed(8), "The flagged tile should not be revealed.");
+
+    // The bomb and the flag were visited, but not opened. The next fill must still open them.
+    PackedBoardStorage empty = new PackedBoardStorage(width, height);
+    assertEquals(width * height, floodFill.reveal(empty, 0).length,
+        "Every tile visited by the first fill should be forgotten before the next one.");
+  }
+}
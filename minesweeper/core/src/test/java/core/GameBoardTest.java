@@ -11,6 +11,8 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import core.settings.BoardStorageMode;
+import core.settings.CustomDifficulty;
 import core.settings.GameDifficulty;
 
 public class GameBoardTest {
@@ -36,7 +38,7 @@ public class GameBoardTest {
   @DisplayName("Ensure that clicking on first tiles and tiles around it works correctly")
   public void testClickOnTile() {
     GameBoard gameBoard = new GameBoard(GameDifficulty.MEDIUM);
-    gameBoard.tileClicked(1, 1);
+    int[] revealed = gameBoard.tileClicked(1, 1);
 
     List<int[]> coordinatesWithNoBombs = Arrays.asList(new int[] { 0, 0 }, new int[] { 0, 1 },
         new int[] { 0, 2 }, new int[] { 1, 0 }, new int[] { 1, 2 }, new int[] { 2, 0 },
@@ -46,6 +48,13 @@ public class GameBoardTest {
     Tile clickedTile = gameBoard.getTile(1, 1);
     assertEquals(true, clickedTile.isRevealed(),
         "First click should always be reveald.");
+    assertEquals(GameDifficulty.MEDIUM.getGridWidth() * GameDifficulty.MEDIUM.getGridHeight()
+        - GameDifficulty.MEDIUM.getNumBombs() - gameBoard.getTilesLeft(), revealed.length,
+        "The first click should report every tile it revealed.");
+    for (int index : revealed) {
+      assertEquals(true, gameBoard.getTileByIndex(index).isRevealed(),
+          "Every reported tile should be revealed.");
+    }
 
     for (int[] coordinates : coordinatesWithNoBombs) {
       Tile tile = gameBoard.getTile(coordinates[0], coordinates[1]);
@@ -146,4 +155,106 @@ public class GameBoardTest {
     });
   }
 
+  @Test
+  @DisplayName("Ensure that the packed storage mode plays like the tile storage mode")
+  public void testPackedClickOnTile() {
+    GameBoard gameBoard = new GameBoard(GameDifficulty.HARD, BoardStorageMode.PACKED);
+    gameBoard.tileClicked(5, 5);
+
+    for (int x = 4; x <= 6; x++) {
+      for (int y = 4; y <= 6; y++) {
+        assertEquals(false, gameBoard.getTile(x, y).isBomb(),
+            "All tiles around first click should not be bombs.");
+        assertEquals(true, gameBoard.getTile(x, y).isRevealed(),
+            "All tiles around first click should be revealed.");
+      }
+    }
+
+    List<Tile> bombTiles = gameBoard.getBombTiles();
+    assertEquals(GameDifficulty.HARD.getNumBombs(), bombTiles.size(),
+        "All bombs should be placed.");
+    for (Tile bomb : bombTiles) {
+      assertEquals(true, gameBoard.getTile(bomb.getX(), bomb.getY()).isBomb(),
+          "Bomb tiles should be bombs when read from the board.");
+    }
+  }
+
+  @Test
+  @DisplayName("Ensure that tiles from the packed storage write through to the board")
+  public void testPackedTileWritesThrough() {
+    GameBoard gameBoard = new GameBoard(GameDifficulty.EASY, BoardStorageMode.PACKED);
+    Tile tile = gameBoard.getTile(2, 3);
+    tile.toggleFlag();
+
+    assertEquals(true, gameBoard.getTile(2, 3).isFlagged(),
+        "Flagging a tile view should flag the tile on the board.");
+    assertEquals("F", gameBoard.getTile(2, 3).toString());
+    assertThrows(IllegalStateException.class, () -> gameBoard.getTile(2, 3).reveal());
+
+    tile.toggleFlag();
+    tile.reveal();
+    assertThrows(IllegalStateException.class, () -> gameBoard.getTile(2, 3).toggleFlag());
+  }
+
+  @Test
+  @DisplayName("Ensure that neighbor indexes match the neighbor tiles")
+  public void testNeighborIndexes() {
+    GameBoard gameBoard = new GameBoard(GameDifficulty.MEDIUM);
+    int[] buffer = new int[8];
+    int width = gameBoard.getWidth();
+
+    assertEquals(3, gameBoard.getNeighborIndexes(0, 0, buffer), "A corner has 3 neighbors.");
+    assertEquals(5, gameBoard.getNeighborIndexes(4, 0, buffer), "An edge tile has 5 neighbors.");
+    assertEquals(8, gameBoard.getNeighborIndexes(4, 4, buffer), "An inner tile has 8 neighbors.");
+
+    List<Tile> neighbors = gameBoard.getNeighborTiles(4, 4);
+    for (int k = 0; k < 8; k++) {
+      assertEquals(neighbors.get(k).getX(), buffer[k] % width);
+      assertEquals(neighbors.get(k).getY(), buffer[k] / width);
+    }
+  }
+
+  @Test
+  @DisplayName("Ensure that boards with the same seed and first click are identical")
+  public void testSeededBoards() {
+    GameBoard first = new GameBoard(GameDifficulty.HARD, 1234L);
+    GameBoard second = new GameBoard(GameDifficulty.HARD, BoardStorageMode.PACKED, 1234L);
+    first.tileClicked(3, 4);
+    second.tileClicked(3, 4);
+
+    assertEquals(1234L, first.getSeed());
+    for (int x = 0; x < first.getWidth(); x++) {
+      for (int y = 0; y < first.getHeight(); y++) {
+        assertEquals(first.getTile(x, y).isBomb(), second.getTile(x, y).isBomb(),
+            "Boards with the same seed should have the same bombs.");
+      }
+    }
+
+    GameBoard other = new GameBoard(GameDifficulty.HARD, 4321L);
+    other.tileClicked(3, 4);
+    boolean sameBombs = true;
+    for (int x = 0; x < first.getWidth(); x++) {
+      for (int y = 0; y < first.getHeight(); y++) {
+        sameBombs &= first.getTile(x, y).isBomb() == other.getTile(x, y).isBomb();
+      }
+    }
+    assertEquals(false, sameBombs, "Boards with different seeds should differ.");
+  }
+
+
+  @Test
+  @DisplayName("Ensure that a large custom board can be played")
+  public void testCustomDifficulty() {
+    CustomDifficulty difficulty = new CustomDifficulty(1000, 800, 150_000);
+    GameBoard gameBoard = new GameBoard(difficulty, BoardStorageMode.PACKED, 99L);
+    gameBoard.tileClicked(500, 400);
+
+    assertEquals(1000, gameBoard.getWidth());
+    assertEquals(800, gameBoard.getHeight());
+    assertEquals(150_000, gameBoard.getBombTiles().size(), "All bombs should be placed.");
+    assertEquals(false, gameBoard.getTile(500, 400).isBomb(),
+        "The first click should not be a bomb.");
+    assertEquals(true, gameBoard.getTile(500, 400).isRevealed(),
+        "The first click should be revealed.");
+  }
 }
@@ -0,0 +1,124 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import core.settings.CustomDifficulty;
+import core.settings.GameDifficulty;
+import core.settings.SettingsManager;
+
+public class GameEngineTest {
+
+  private GameEngine gameEngine;
+
+  @BeforeEach
+  public void setup() {
+    SettingsManager.setGameDifficulty(GameDifficulty.EASY);
+    gameEngine = new GameEngine();
+  }
+
+  @Test
+  @DisplayName("Ensure that a very large custom board is packed instead of made of Tile objects")
+  public void testLargeCustomBoard() {
+    SettingsManager.setGameDifficulty(new CustomDifficulty(5000, 5000, 1000));
+    try {
+      gameEngine = new GameEngine();
+      assertTrue(gameEngine.getTile(0, 0) instanceof PackedTile);
+      gameEngine.handleLeftClick(2500, 2500);
+      assertTrue(gameEngine.getTile(2500, 2500).isRevealed());
+
+      gameEngine.resetGame(42L);
+      assertTrue(gameEngine.getTile(0, 0) instanceof PackedTile);
+    } finally {
+      SettingsManager.setGameDifficulty(GameDifficulty.EASY);
+    }
+    assertEquals(false, new GameEngine().getTile(0, 0) instanceof PackedTile,
+        "Small boards should still be made of Tile objects.");
+  }
+
+  @Test
+  @DisplayName("Ensure that a left click only reports the tiles it revealed")
+  public void testLeftClickDelta() {
+    gameEngine.handleLeftClick(3, 3);
+
+    int revealedOnBoard = countRevealedTiles();
+    List<TileReadable> updated = gameEngine.getLatestUpdatedTiles();
+    assertEquals(revealedOnBoard, updated.size(),
+        "The first click should report exactly the tiles which were revealed.");
+    assertEquals(revealedOnBoard, gameEngine.getLatestUpdatedIndexes().length);
+    updated.forEach(tile -> assertEquals(true, tile.isRevealed()));
+
+    gameEngine.handleLeftClick(3, 3);
+    assertEquals(0, gameEngine.getLatestUpdatedTiles().size(),
+        "Clicking a revealed tile should not report any changes.");
+  }
+
+  @Test
+  @DisplayName("Ensure that a right click only reports the flagged tile")
+  public void testRightClickDelta() {
+    gameEngine.handleLeftClick(3, 3);
+    int[] hidden = findHiddenTile();
+
+    gameEngine.handleRightClick(hidden[0], hidden[1]);
+    List<TileReadable> updated = gameEngine.getLatestUpdatedTiles();
+
+    assertEquals(1, updated.size(), "Only the flagged tile should be reported.");
+    assertEquals(hidden[0], updated.get(0).getX());
+    assertEquals(hidden[1], updated.get(0).getY());
+    assertEquals(true, updated.get(0).isFlagged());
+  }
+
+  @Test
+  @DisplayName("Ensure that clicking a bomb reports every bomb")
+  public void testBombClickDelta() {
+    gameEngine.handleLeftClick(3, 3);
+    int[] bomb = findBomb();
+
+    gameEngine.handleLeftClick(bomb[0], bomb[1]);
+    List<TileReadable> updated = gameEngine.getLatestUpdatedTiles();
+
+    assertEquals(GameDifficulty.EASY.getNumBombs(), updated.size(),
+        "All the bombs, and nothing else, should be reported.");
+    updated.forEach(tile -> assertEquals(true, tile.isBomb() && tile.isRevealed()));
+  }
+
+  private int countRevealedTiles() {
+    int revealed = 0;
+    for (int x = 0; x < GameDifficulty.EASY.getGridWidth(); x++) {
+      for (int y = 0; y < GameDifficulty.EASY.getGridHeight(); y++) {
+        if (gameEngine.getTile(x, y).isRevealed()) {
+          revealed++;
+        }
+      }
+    }
+    return revealed;
+  }
+
+  private int[] findHiddenTile() {
+    for (int x = 0; x < GameDifficulty.EASY.getGridWidth(); x++) {
+      for (int y = 0; y < GameDifficulty.EASY.getGridHeight(); y++) {
+        if (!gameEngine.getTile(x, y).isRevealed()) {
+          return new int[] { x, y };
+        }
+      }
+    }
+    throw new IllegalStateException("No hidden tiles left");
+  }
+
+  private int[] findBomb() {
+    for (int x = 0; x < GameDifficulty.EASY.getGridWidth(); x++) {
+      for (int y = 0; y < GameDifficulty.EASY.getGridHeight(); y++) {
+        if (gameEngine.getTile(x, y).isBomb()) {
+          return new int[] { x, y };
+        }
+      }
+    }
+    throw new IllegalStateException("No bombs on the board");
+  }
+}
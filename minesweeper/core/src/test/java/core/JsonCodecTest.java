@@ -0,0 +1,48 @@
+package core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class JsonCodecTest {
+
+  @Test
+  @DisplayName("Ensure that a list of scores is written and read back unchanged")
+  public void testScoreList() throws Exception {
+    List<UserScore> userScores = List.of(new UserScore("Bert", 100, "2020-10-04", "EASY"),
+        new UserScore("Bernard", 30, "2021-09-08", "HARD"));
+
+    String json = JsonCodec.scoreListWriter().writeValueAsString(userScores);
+    List<UserScore> read = JsonCodec.scoreListReader().readValue(json);
+
+    assertEquals(userScores.toString(), read.toString());
+  }
+
+  @Test
+  @DisplayName("Ensure that unknown properties are still rejected when reading")
+  public void testUnknownProperties() {
+    assertThrows(UnrecognizedPropertyException.class, () -> JsonCodec.scoreReader().readValue(
+        "{\"name\":\"Bert\",\"score\":100,\"date\":\"2020-10-04\",\"difficulty\":\"EASY\","
+        + "\"rank\":1}"));
+  }
+
+  @Test
+  @DisplayName("Ensure that the readers and writers are shared, but ObjectMappers are copies")
+  public void testShared() {
+    assertSame(JsonCodec.scoreReader(), JsonCodec.scoreReader());
+    assertSame(JsonCodec.scoreListWriter(), JsonCodec.scoreListWriter());
+
+    ObjectMapper objectMapper = JsonCodec.newObjectMapper();
+    assertNotSame(objectMapper, JsonCodec.newObjectMapper());
+    assertEquals(true, objectMapper.getDeserializationConfig().isEnabled(
+        DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+  }
+}
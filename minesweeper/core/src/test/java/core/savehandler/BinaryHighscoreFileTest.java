@@ -0,0 +1,114 @@
+package core.savehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import core.JsonCodec;
+import core.UserScore;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinaryHighscoreFileTest {
+
+  private File file;
+
+  @BeforeEach
+  public void setup(@TempDir Path tempDir) {
+    file = tempDir.resolve("highscore.bin").toFile();
+  }
+
+  @Test
+  @DisplayName("Ensure that every field of a score is read back exactly as it was written")
+  public void testWriteAndRead() throws IOException {
+    List<UserScore> userScores = List.of(
+        new UserScore("Bernard", 30, "2021-09-08", "EASY"),
+        new UserScore("Bert", 100, "2020-10-04", "CUSTOM_30x16_99"),
+        new UserScore("Åse", 999, "04.10.2020", "HARD"),
+        new UserScore("Bert", 0, "1969-12-31", "EASY"),
+        new UserScore(null, 65535, null, null));
+    BinaryHighscoreFile.write(userScores, file);
+
+    assertTrue(BinaryHighscoreFile.isBinary(file));
+    List<UserScore> read = BinaryHighscoreFile.read(file);
+    assertEquals(userScores.size(), read.size());
+    for (int i = 0; i < userScores.size(); i++) {
+      assertEquals(userScores.get(i).toString(), read.get(i).toString());
+    }
+  }
+
+  @Test
+  @DisplayName("Ensure that names and difficulties are stored once, in fixed-width records")
+  public void testRecords() throws IOException {
+    List<UserScore> userScores = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      userScores.add(new UserScore("Bert", i, "2023-11-01", i % 2 == 0 ? "EASY" : "HARD"));
+    }
+    BinaryHighscoreFile.write(userScores, file);
+
+    // The header, the three strings and the records.
+    assertEquals(16 + (4 + 4) + (4 + 4) + (4 + 4) + 1000 * BinaryHighscoreFile.RECORD_SIZE,
+        Files.size(file.toPath()));
+    BinaryHighscoreFile binaryFile = BinaryHighscoreFile.open(file);
+    assertEquals(1000, binaryFile.size());
+    assertEquals(999, binaryFile.getScore(999));
+    assertEquals("HARD", binaryFile.getDifficulty(999));
+    assertEquals("2023-11-01", binaryFile.getDate(999));
+    assertEquals("Bert", binaryFile.getName(999));
+    assertThrows(IndexOutOfBoundsException.class, () -> binaryFile.getScore(1000));
+
+    BinaryHighscoreFile loaded = BinaryHighscoreFile.load(file);
+    assertEquals(1000, loaded.size());
+    assertEquals(binaryFile.get(998).toString(), loaded.get(998).toString());
+    // The loaded copy does not depend on the file.
+    Files.delete(file.toPath());
+    assertEquals("HARD", loaded.getDifficulty(999));
+  }
+
+  @Test
+  @DisplayName("Ensure that a JSON file is converted, and that a failed conversion leaves no file")
+  public void testConvert(@TempDir Path tempDir) throws IOException {
+    File jsonFile = tempDir.resolve("highscore.json").toFile();
+    List<UserScore> userScores = List.of(new UserScore("Bernard", 30, "2021-09-08", "EASY"),
+        new UserScore("Bert", 100, "2020-10-04", "HARD"));
+    JsonCodec.scoreListWriter().writeValue(jsonFile, userScores);
+
+    BinaryHighscoreFile.convert(jsonFile, file);
+    assertEquals(userScores.toString(), BinaryHighscoreFile.read(file).toString());
+
+    Files.delete(file.toPath());
+    JsonCodec.scoreListWriter().writeValue(jsonFile,
+        List.of(new UserScore("Bert", 70000, "2023-11-01", "EASY")));
+    assertThrows(IllegalArgumentException.class, () -> BinaryHighscoreFile.convert(jsonFile, file));
+    assertFalse(file.exists(), "A conversion which failed should not leave a binary file.");
+    assertFalse(AtomicFile.temporaryFile(file).exists());
+  }
+
+  @Test
+  @DisplayName("Ensure that files which are not binary highscore files are rejected")
+  public void testInvalidFiles() throws IOException {
+    assertFalse(BinaryHighscoreFile.isBinary(file), "A missing file is not binary.");
+    Files.writeString(file.toPath(), "[ ]");
+    assertFalse(BinaryHighscoreFile.isBinary(file));
+    assertThrows(IOException.class, () -> BinaryHighscoreFile.open(file));
+
+    BinaryHighscoreFile.write(List.of(new UserScore("Bert", 1, "2023-11-01", "EASY")), file);
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+    assertThrows(IOException.class, () -> BinaryHighscoreFile.open(file),
+        "A file which ends in the middle of a record is damaged.");
+
+    assertThrows(IllegalArgumentException.class, () -> BinaryHighscoreFile.write(
+        List.of(new UserScore("Bert", 70000, "2023-11-01", "EASY")), file));
+  }
+}
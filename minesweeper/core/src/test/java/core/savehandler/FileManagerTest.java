@@ -12,9 +12,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public class FileManagerTest {
 
@@ -129,6 +132,71 @@ public class FileManagerTest {
     assertEquals("2021-09-15", userScores.get(2).getDate(), "Date is not correct");
   }
 
+  @Test
+  public void readFromHighscoreFiltered() throws Exception {
+    HighscoreFileManager.writeToHighscore(new UserScore("Bert", 100, "2020-10-04", "EASY"), testFile);
+    HighscoreFileManager.writeToHighscore(new UserScore("Bernard", 200, "2021-09-08", "HARD"), testFile);
+    HighscoreFileManager.writeToHighscore(new UserScore("Alfred", 300, "2021-09-15", "EASY"), testFile);
+    HighscoreFileManager.writeToHighscore(new UserScore("Pedor", 400, "2023-10-04", "EASY"), testFile);
+
+    List<UserScore> easy = HighscoreFileManager.readFromHighscore(testFile, "EASY", 2);
+    assertEquals(List.of("Bert", "Alfred"), easy.stream().map(UserScore::getName).toList(),
+        "Only the two best EASY scores should be read.");
+    List<UserScore> best = HighscoreFileManager.readFromHighscore(testFile, null, 3);
+    assertEquals(List.of("Bert", "Bernard", "Alfred"), best.stream().map(UserScore::getName).toList());
+    assertEquals(0, HighscoreFileManager.readFromHighscore(testFile, "MEDIUM", 10).size());
+  }
+
+  @Test
+  public void streamHighscores() throws Exception {
+    HighscoreFileManager.writeToHighscore(new UserScore("Bert", 100, "2020-10-04", "EASY"), testFile);
+    HighscoreFileManager.writeToHighscore(new UserScore("Bernard", 200, "2021-09-08", "HARD"), testFile);
+
+    try (HighscoreReader reader = HighscoreReader.open(testFile)) {
+      assertTrue(reader.hasNext());
+      assertEquals("Bert", reader.next().getName());
+      assertEquals("Bernard", reader.next().getName());
+      assertFalse(reader.hasNext());
+      assertThrows(NoSuchElementException.class, reader::next);
+    }
+
+    File notAnArray = new File("src/test/resources/notAnArray.json");
+    try {
+      new ObjectMapper().writeValue(notAnArray, new UserScore("Bert", 100, "2020-10-04", "EASY"));
+      assertThrows(IOException.class, () -> HighscoreReader.open(notAnArray));
+    } finally {
+      notAnArray.delete();
+    }
+  }
+
+  @Test
+  public void writeToUnreadableHighscore() throws Exception {
+    File damagedFile = new File("src/test/resources/damagedHighscore.json");
+    String damaged = "[ {\"name\" : \"Bert\", \"score\" : 1";
+    PrintStream originalErrorStream = System.err;
+    try {
+      Files.writeString(damagedFile.toPath(), damaged);
+      System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+
+      HighscoreFileManager.writeToHighscore(new UserScore("Pedor", 50, "2023-10-04", "EASY"),
+          damagedFile);
+
+      assertEquals(damaged, Files.readString(damagedFile.toPath()),
+          "A file which cannot be read should not be replaced by a file with only the new score.");
+    } finally {
+      System.setErr(originalErrorStream);
+      damagedFile.delete();
+    }
+  }
+
+  @Test
+  public void writeReplacesFileAtomically() throws Exception {
+    HighscoreFileManager.writeToHighscore(new UserScore("Pedor", 50, "2023-10-04", "EASY"), testFile);
+
+    assertFalse(AtomicFile.temporaryFile(testFile).exists(), "No temporary file should be left.");
+    assertEquals(1, HighscoreFileManager.readFromHighscore(testFile).size());
+  }
+
   @Test
   public void readFromNonExistingFile() {
 
@@ -0,0 +1,218 @@
+package core.savehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import core.UserScore;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HighscoreLogTest {
+
+  private File snapshotFile;
+  private File logFile;
+  private HighscoreLog highscoreLog;
+
+  @BeforeEach
+  public void setup(@TempDir Path tempDir) {
+    snapshotFile = tempDir.resolve("highscore.json").toFile();
+    logFile = tempDir.resolve("highscore.log").toFile();
+    highscoreLog = new HighscoreLog(snapshotFile, logFile, 1000);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    highscoreLog.close();
+  }
+
+  @Test
+  @DisplayName("Ensure that new scores are appended to the log, and read back in order")
+  public void testAppend() throws Exception {
+    highscoreLog.append(new UserScore("Bert", 100, "2020-10-04", "EASY"));
+    highscoreLog.append(new UserScore("Bernard", 30, "2021-09-08", "EASY"));
+    highscoreLog.append(new UserScore("Alfred", 50, "2021-09-15", "HARD"));
+
+    assertEquals(3, Files.readAllLines(logFile.toPath()).size(), "Every score should be a line.");
+    assertEquals(false, snapshotFile.exists(), "The snapshot should not be written yet.");
+    assertEquals(List.of("Bernard", "Alfred", "Bert"), names(highscoreLog.readAll()));
+  }
+
+  @Test
+  @DisplayName("Ensure that compacting merges the log into the sorted snapshot")
+  public void testCompact() throws Exception {
+    highscoreLog.append(new UserScore("Bert", 100, "2020-10-04", "EASY"));
+    highscoreLog.compact();
+    highscoreLog.append(new UserScore("Bernard", 30, "2021-09-08", "EASY"));
+    highscoreLog.append(new UserScore("Alfred", 100, "2021-09-15", "EASY"));
+    highscoreLog.compact();
+
+    assertEquals(false, logFile.exists(), "The log should be empty after compacting.");
+    List<UserScore> snapshot = HighscoreFileManager.readFromHighscore(snapshotFile);
+    assertEquals(List.of("Bernard", "Bert", "Alfred"), names(snapshot),
+        "Equal scores should keep the order they were added in.");
+    assertEquals(names(snapshot), names(highscoreLog.readAll()));
+  }
+
+  @Test
+  @DisplayName("Ensure that the log is compacted in the background once it is long enough")
+  public void testCompactThreshold() throws Exception {
+    highscoreLog.close();
+    highscoreLog = new HighscoreLog(snapshotFile, logFile, 10);
+    for (int i = 0; i < 10; i++) {
+      highscoreLog.append(new UserScore("player" + i, i, "2023-10-15", "EASY"));
+    }
+
+    for (int i = 0; i < 100 && !snapshotFile.exists(); i++) {
+      Thread.sleep(50);
+    }
+    assertEquals(10, HighscoreFileManager.readFromHighscore(snapshotFile).size());
+    assertEquals(10, highscoreLog.readAll().size());
+  }
+
+  @Test
+  @DisplayName("Ensure that compacting does not replace a snapshot which cannot be read")
+  public void testCompactUnreadableSnapshot() throws Exception {
+    Files.writeString(snapshotFile.toPath(), "[ {\"name\" : \"Bert\", \"sco");
+    highscoreLog.append(new UserScore("Bernard", 30, "2021-09-08", "EASY"));
+
+    assertThrows(IOException.class, highscoreLog::compact);
+    assertEquals("[ {\"name\" : \"Bert\", \"sco", Files.readString(snapshotFile.toPath()));
+  }
+
+  @Test
+  @DisplayName("Ensure that switching to the binary format converts the snapshot")
+  public void testBinarySnapshot() throws Exception {
+    highscoreLog.append(new UserScore("Bert", 100, "2020-10-04", "EASY"));
+    highscoreLog.compact();
+    highscoreLog.close();
+
+    highscoreLog = new HighscoreLog(snapshotFile, logFile, 1000,
+        HighscoreLog.SnapshotFormat.BINARY);
+    assertEquals(List.of("Bert"), names(highscoreLog.readAll()),
+        "The JSON snapshot should still be read.");
+    highscoreLog.append(new UserScore("Bernard", 30, "2021-09-08", "EASY"));
+    highscoreLog.compact();
+
+    assertTrue(BinaryHighscoreFile.isBinary(snapshotFile));
+    assertEquals(List.of("Bernard", "Bert"), names(BinaryHighscoreFile.read(snapshotFile)));
+    assertEquals(List.of("Bernard", "Bert"), names(highscoreLog.readAll()));
+  }
+
+  @Test
+  @DisplayName("Ensure that a score which does not fit in the binary format is set aside")
+  public void testBinarySnapshotSetsAsideBadScores() throws Exception {
+    highscoreLog.close();
+    highscoreLog = new HighscoreLog(snapshotFile, logFile, 1000,
+        HighscoreLog.SnapshotFormat.BINARY);
+    highscoreLog.append(new UserScore("Bert", 100, "2020-10-04", "EASY"));
+    highscoreLog.append(new UserScore("Cheater", -1, "2021-09-08", "EASY"));
+    highscoreLog.compact();
+    highscoreLog.append(new UserScore("Bernard", 30, "2021-09-08", "EASY"));
+    highscoreLog.compact();
+
+    assertEquals(List.of("Bernard", "Bert"), names(highscoreLog.readAll()));
+    assertEquals(false, new File(logFile.getPath() + ".compacting").exists());
+    List<String> rejected = Files.readAllLines(new File(logFile.getPath() + ".rejected").toPath());
+    assertEquals(1, rejected.size());
+    assertTrue(rejected.get(0).contains("Cheater"));
+  }
+
+  @Test
+  @DisplayName("Ensure that a compaction which was committed before a crash is finished")
+  public void testRecoverCommittedCompaction() throws Exception {
+    highscoreLog.close();
+    HighscoreFileManager.writeToHighscore(new UserScore("Bert", 100, "2020-10-04", "EASY"),
+        snapshotFile);
+    File nextFile = new File(snapshotFile.getPath() + ".next");
+    HighscoreFileManager.writeToHighscore(new UserScore("Bert", 100, "2020-10-04", "EASY"),
+        nextFile);
+    HighscoreFileManager.writeToHighscore(new UserScore("Bernard", 30, "2021-09-08", "EASY"),
+        nextFile);
+    File mergedFile = new File(logFile.getPath() + ".merged");
+    Files.writeString(mergedFile.toPath(),
+        new UserScore("Bernard", 30, "2021-09-08", "EASY").toJson() + "\n");
+
+    highscoreLog = new HighscoreLog(snapshotFile, logFile, 1000);
+
+    assertEquals(List.of("Bernard", "Bert"), names(highscoreLog.readAll()),
+        "The merged scores should be in the snapshot, and only once.");
+    assertEquals(false, mergedFile.exists());
+    assertEquals(false, nextFile.exists());
+  }
+
+  @Test
+  @DisplayName("Ensure that a compaction which was not committed before a crash is undone")
+  public void testRecoverUncommittedCompaction() throws Exception {
+    highscoreLog.close();
+    HighscoreFileManager.writeToHighscore(new UserScore("Bert", 100, "2020-10-04", "EASY"),
+        snapshotFile);
+    File compactingFile = new File(logFile.getPath() + ".compacting");
+    Files.writeString(compactingFile.toPath(),
+        new UserScore("Bernard", 30, "2021-09-08", "EASY").toJson() + "\n");
+    File nextFile = new File(snapshotFile.getPath() + ".next");
+    Files.writeString(nextFile.toPath(), "[ {\"name\" : \"Bern");
+
+    highscoreLog = new HighscoreLog(snapshotFile, logFile, 1000);
+
+    assertEquals(false, nextFile.exists(), "The half written snapshot should be removed.");
+    assertEquals(List.of("Bernard", "Bert"), names(highscoreLog.readAll()));
+    highscoreLog.compact();
+    assertEquals(List.of("Bernard", "Bert"),
+        names(HighscoreFileManager.readFromHighscore(snapshotFile)));
+    assertEquals(false, compactingFile.exists());
+  }
+
+  @Test
+  @DisplayName("Ensure that a half written line at the end of the log is skipped")
+  public void testTornLine() throws Exception {
+    highscoreLog.append(new UserScore("Bert", 100, "2020-10-04", "EASY"));
+    Files.write(logFile.toPath(), "{\"name\":\"Ber".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    assertEquals(List.of("Bert"), names(highscoreLog.readAll()));
+  }
+
+  @Test
+  @DisplayName("Ensure that a score appended after a half written line is not lost")
+  public void testAppendAfterTornLine() throws Exception {
+    highscoreLog.append(new UserScore("Bert", 100, "2020-10-04", "EASY"));
+    highscoreLog.close();
+    Files.write(logFile.toPath(), "{\"name\":\"Ber".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    highscoreLog = new HighscoreLog(snapshotFile, logFile, 1000);
+    highscoreLog.append(new UserScore("Bernard", 30, "2021-09-08", "EASY"));
+    highscoreLog.close();
+    highscoreLog = new HighscoreLog(snapshotFile, logFile, 1000);
+
+    assertEquals(List.of("Bernard", "Bert"), names(highscoreLog.readAll()));
+    assertEquals(2, Files.readAllLines(logFile.toPath()).size(),
+        "The half written line should be removed.");
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    highscoreLog.append(new UserScore("Bert", 100, "2020-10-04", "EASY"));
+    highscoreLog.compact();
+    highscoreLog.append(new UserScore("Bernard", 30, "2021-09-08", "EASY"));
+    highscoreLog.clear();
+
+    assertTrue(highscoreLog.readAll().isEmpty());
+    assertTrue(HighscoreFileManager.readFromHighscore(snapshotFile).isEmpty());
+  }
+
+  private static List<String> names(List<UserScore> userScores) {
+    return userScores.stream().map(UserScore::getName).toList();
+  }
+}
@@ -0,0 +1,194 @@
+package core.savehandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import core.UserScore;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HighscoreWriteQueueTest {
+
+  private Path logFile;
+  private HighscoreLog highscoreLog;
+  private List<List<UserScore>> batches;
+  private HighscoreWriteQueue writeQueue;
+
+  @BeforeEach
+  public void setup(@TempDir Path tempDir) {
+    logFile = tempDir.resolve("highscore.log");
+    highscoreLog = new HighscoreLog(tempDir.resolve("highscore.json").toFile(), logFile.toFile(),
+        Integer.MAX_VALUE);
+    batches = new CopyOnWriteArrayList<>();
+    writeQueue = new HighscoreWriteQueue(highscoreLog, batches::add, 64);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    writeQueue.close();
+    highscoreLog.close();
+  }
+
+  @Test
+  @DisplayName("Ensure that no scores are lost when many threads submit at the same time")
+  public void testConcurrentSubmits() throws Exception {
+    int threads = 8;
+    int scoresPerThread = 250;
+    ExecutorService submitters = Executors.newFixedThreadPool(threads);
+    List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int thread = t;
+      submitters.execute(() -> {
+        for (int i = 0; i < scoresPerThread; i++) {
+          futures.add(writeQueue.submit(
+              new UserScore("Player" + thread, i, "2023-11-01", "EASY")));
+        }
+      });
+    }
+    submitters.shutdown();
+    assertTrue(submitters.awaitTermination(10, TimeUnit.SECONDS));
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+    int total = threads * scoresPerThread;
+    assertEquals(total, highscoreLog.readAll().size(), "Every score should be in the log.");
+    assertEquals(total, Files.readAllLines(logFile).size());
+    assertEquals(total, batches.stream().mapToInt(List::size).sum(),
+        "Every score should be passed on once it is written.");
+    assertTrue(batches.stream().allMatch(batch -> batch.size() <= 64),
+        "No batch should be larger than the maximum.");
+  }
+
+  @Test
+  @DisplayName("Ensure that group commit collects the scores which arrive within the window")
+  public void testGroupCommit() {
+    writeQueue.close();
+    writeQueue = new HighscoreWriteQueue(highscoreLog, batches::add, 64,
+        Duration.ofMillis(500));
+
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      futures.add(writeQueue.submit(new UserScore("Bert", i, "2023-11-01", "EASY")));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+    assertEquals(1, batches.size(), "All the scores should be written as one batch.");
+    assertEquals(10, highscoreLog.readAll().size());
+  }
+
+  @Test
+  @DisplayName("Ensure that scores submitted together are written with one write")
+  public void testSubmitAll() {
+    List<UserScore> userScores = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      userScores.add(new UserScore("Bert", i, "2023-11-01", "EASY"));
+    }
+    writeQueue.submitAll(userScores).join();
+
+    assertEquals(List.of(userScores), batches,
+        "The scores should be one batch, even though it is larger than the maximum.");
+    assertEquals(100, highscoreLog.readAll().size());
+    assertTrue(writeQueue.submitAll(List.of()).isDone());
+  }
+
+  @Test
+  @DisplayName("Ensure that closing the queue writes the scores which are still waiting")
+  public void testClose() {
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      futures.add(writeQueue.submit(new UserScore("Bert", i, "2023-11-01", "HARD")));
+    }
+    writeQueue.close();
+
+    assertTrue(futures.stream().allMatch(CompletableFuture::isDone));
+    assertEquals(100, highscoreLog.readAll().size());
+    CompletableFuture<Void> late = writeQueue.submit(
+        new UserScore("Bernard", 1, "2023-11-01", "HARD"));
+    CompletionException e = assertThrows(CompletionException.class, late::join);
+    assertTrue(e.getCause() instanceof IllegalStateException);
+  }
+
+  @Test
+  @DisplayName("Ensure that a failed write fails the futures of its batch")
+  public void testFailedWrite() throws Exception {
+    // The log can not be appended to when there is a directory in its place.
+    Files.createDirectory(logFile);
+
+    CompletableFuture<Void> future = writeQueue.submit(
+        new UserScore("Alfred", 50, "2023-11-01", "MEDIUM"));
+    CompletionException e = assertThrows(CompletionException.class, future::join);
+    assertTrue(e.getCause() instanceof IOException);
+    assertTrue(batches.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Ensure that a score which is written succeeds, even if onWritten fails")
+  public void testFailingOnWritten() {
+    writeQueue.close();
+    writeQueue = new HighscoreWriteQueue(highscoreLog, scores -> {
+      throw new IllegalStateException("Full");
+    }, 64);
+
+    PrintStream orgErr = System.err;
+    System.setErr(new PrintStream(new ByteArrayOutputStream()));
+    try {
+      writeQueue.submit(new UserScore("Alfred", 50, "2023-11-01", "MEDIUM")).join();
+    } finally {
+      System.setErr(orgErr);
+    }
+    assertEquals(1, highscoreLog.readAll().size());
+  }
+
+  @Test
+  @DisplayName("Ensure that queued scores fail when the writer is interrupted")
+  public void testWriterInterrupted() throws Exception {
+    AtomicReference<Thread> writer = new AtomicReference<>();
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    writeQueue.close();
+    writeQueue = new HighscoreWriteQueue(highscoreLog, scores -> {
+      writer.set(Thread.currentThread());
+      writing.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, 64);
+
+    CompletableFuture<Void> first = writeQueue.submit(
+        new UserScore("Bert", 10, "2023-11-01", "EASY"));
+    assertTrue(writing.await(10, TimeUnit.SECONDS));
+    CompletableFuture<Void> queued = writeQueue.submit(
+        new UserScore("Bernard", 20, "2023-11-01", "EASY"));
+    writer.get().interrupt();
+
+    first.get(10, TimeUnit.SECONDS);
+    ExecutionException e = assertThrows(ExecutionException.class,
+        () -> queued.get(10, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof IllegalStateException);
+    CompletionException late = assertThrows(CompletionException.class, () -> writeQueue.submit(
+        new UserScore("Alfred", 30, "2023-11-01", "EASY")).join());
+    assertTrue(late.getCause() instanceof IllegalStateException);
+  }
+}
@@ -0,0 +1,41 @@
+package core.settings;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CustomDifficultyTest {
+
+  @Test
+  @DisplayName("Ensure that a custom difficulty can be read back from its name")
+  public void testName() {
+    CustomDifficulty difficulty = new CustomDifficulty(30, 16, 99);
+
+    assertEquals("CUSTOM_30x16_99", difficulty.getName());
+    assertEquals(difficulty, Difficulty.fromName("CUSTOM_30x16_99"));
+    assertEquals(GameDifficulty.HARD, Difficulty.fromName("HARD"));
+    assertEquals(30 * 30 + 320, difficulty.getStageMinWidth());
+  }
+
+  @Test
+  @DisplayName("Ensure that invalid sizes and bomb counts are rejected")
+  public void testValidation() {
+    assertThrows(IllegalArgumentException.class, () -> new CustomDifficulty(0, 10, 1));
+    assertThrows(IllegalArgumentException.class, () -> new CustomDifficulty(10, 10, 0));
+    assertThrows(IllegalArgumentException.class, () -> new CustomDifficulty(10, 10, 92));
+    // 100 000 x 100 000 overflows an int, and is far above the limit.
+    assertThrows(IllegalArgumentException.class, () -> new CustomDifficulty(100_000, 100_000, 1));
+    assertEquals(91, new CustomDifficulty(10, 10, 91).getNumBombs());
+  }
+
+  @Test
+  @DisplayName("Ensure that names which are not difficulties are rejected")
+  public void testInvalidNames() {
+    assertThrows(IllegalArgumentException.class, () -> Difficulty.fromName("IMPOSSIBLE"));
+    assertThrows(IllegalArgumentException.class, () -> Difficulty.fromName("CUSTOM_30x16"));
+    assertThrows(IllegalArgumentException.class, () -> Difficulty.fromName("CUSTOM_ax16_99"));
+    assertThrows(IllegalArgumentException.class, () -> Difficulty.fromName(null));
+  }
+}
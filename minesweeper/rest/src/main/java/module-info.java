@@ -9,10 +9,14 @@ module minesweeperrest {
     requires spring.boot;
     requires spring.boot.autoconfigure;
     requires spring.web;
+    requires spring.webmvc;
     requires spring.beans;
     requires spring.core;
     requires spring.context;
 
+    // Jetty, for choosing the threads requests are handled on
+    requires org.eclipse.jetty.util;
+
     // SpringBoot needs access to the springBoot package, so called 'deep reflection'.
     opens springboot;
 }
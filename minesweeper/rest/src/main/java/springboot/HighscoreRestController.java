@@ -1,13 +1,34 @@
 package springboot;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import core.Stopwatch;
 import core.UserScore;
+import core.settings.Difficulty;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * This class is used to handle HTTP requests. It is a REST controller.
@@ -15,7 +36,14 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class HighscoreRestController {
 
+  /**
+   * The largest number of highscores the batch endpoint adds in one request.
+   */
+  public static final int MAX_BATCH_SIZE = 10_000;
+
   private final HighscoreService highscoreService;
+  private final ObjectMapper objectMapper;
+  private final ObjectReader scoreReader;
 
   /**
    * Constructor for HighscoreRestController, which is used to handle HTTP requests.
@@ -25,34 +53,202 @@ public class HighscoreRestController {
 
    * @param highscoreService This is the class which contains
    *     the methods for handling HTTP requests.
+   * @param objectMapper The ObjectMapper Spring converts request bodies with. Highscores which are
+   *     read by the controller itself use the same settings, so every body is read the same way.
    */
   @Autowired
-  public HighscoreRestController(HighscoreService highscoreService) {
+  public HighscoreRestController(HighscoreService highscoreService, ObjectMapper objectMapper) {
     this.highscoreService = highscoreService;
+    this.objectMapper = objectMapper;
+    this.scoreReader = objectMapper.readerFor(UserScore.class);
   }
 
   /**
-   * This method is used to handle GET requests to the /highscores endpoint.
+   * This method is used to handle GET requests to the /highscores endpoint. Without any
+   * parameters every highscore is returned. The parameters can be used to only get the
+   * highscores which are shown, for example the top 10 for one difficulty.
+   *
+   * <p>The response has an ETag and a Last-Modified header. A client which already has the
+   * highscores can send the ETag back in an If-None-Match header, and then gets an empty
+   * 304 Not Modified response if no highscore has changed since.
 
-   * @return A list of UserScore objects.
+   * @param difficulty Only return highscores for this difficulty, like "EASY".
+   * @param offset How many of the best highscores to skip, 0 if it is not given.
+   * @param limit The largest number of highscores to return, all of them if it is not given.
+   * @param webRequest The request, which Spring uses to check the conditional headers.
+   * @return A list of UserScore objects, lower scores first, or null if nothing has changed.
+   * @throws IllegalArgumentException If the difficulty is unknown,
+   *     or if the offset or limit is negative.
    */
   @GetMapping("/highscores")
-  public List<UserScore> getAllHighscores() {
-    return highscoreService.getAllHighscores();
+  public List<UserScore> getHighscores(
+      @RequestParam(required = false) String difficulty,
+      @RequestParam(defaultValue = "0") int offset,
+      @RequestParam(required = false) Integer limit,
+      WebRequest webRequest) {
+    if (difficulty != null) {
+      Difficulty.fromName(difficulty);
+    }
+    if (offset < 0 || limit != null && limit < 0) {
+      throw new IllegalArgumentException("Offset and limit can not be negative");
+    }
+
+    if (webRequest.checkNotModified(highscoreService.getVersionTag(),
+        highscoreService.getLastModified())) {
+      return null;
+    }
+    if (difficulty == null && offset == 0 && limit == null) {
+      return highscoreService.getAllHighscores();
+    }
+    return highscoreService.getHighscores(difficulty, offset,
+        limit == null ? Integer.MAX_VALUE : limit);
+  }
+
+  /**
+   * This method is used to handle GET requests to the /highscores/rank endpoint. It finds the
+   * rank a score has, or would have, among the highscores for a difficulty, without sending
+   * the highscores themselves.
+
+   * @param difficulty The difficulty to rank the score among, like "HARD".
+   * @param score The score, in seconds.
+   * @return The rank of the score, the number of highscores, and how many percent of them
+   *     are worse than the score.
+   * @throws IllegalArgumentException If the difficulty is unknown.
+   */
+  @GetMapping("/highscores/rank")
+  public ScoreRank getRank(@RequestParam String difficulty, @RequestParam int score) {
+    Difficulty.fromName(difficulty);
+    return highscoreService.getRank(difficulty, score);
+  }
+
+  /**
+   * This method is used to handle GET requests to the /highscores/stream endpoint. The connection
+   * is kept open, and the best highscores of the difficulty are sent as Server-Sent Events: first
+   * all of them, and then every new highscore which lands among them. So a client can show the
+   * highscores live, without asking for them again and again.
+
+   * @param difficulty The difficulty to follow, like "EASY".
+   * @param top How many of the best highscores to follow, 10 if it is not given.
+   * @return The emitter which sends the events.
+   * @throws IllegalArgumentException If the difficulty is unknown, or if top is less than 1.
+   */
+  @GetMapping(path = "/highscores/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamHighscores(@RequestParam String difficulty,
+      @RequestParam(defaultValue = "10") int top) {
+    Difficulty.fromName(difficulty);
+    if (top < 1) {
+      throw new IllegalArgumentException("Top must be at least 1");
+    }
+    return highscoreService.subscribe(difficulty, top);
   }
 
   /**
    * This method is used to handle POST requests to the /highscores endpoint. Spring Boot is super
    * smart, and automatically converts the JSON string (which is sent in the request body) to a
-   * UserScore object.
+   * UserScore object. The difficulty of the score must be one of the fixed difficulties, or a
+   * valid custom difficulty like "CUSTOM_30x16_99", and the score must be between 0 and
+   * {@value Stopwatch#MAX_TIME} seconds.
 
    * @param userScore This is the UserScore object which is written to the highscore file.
+   * @throws IllegalArgumentException if the difficulty or the score is not valid.
    */
   @PostMapping("/highscores")
   public void addHighscore(@RequestBody UserScore userScore) {
+    validate(userScore);
     highscoreService.addHighscore(userScore);
   }
 
+  /**
+   * This method is used to handle POST requests to the /highscores/batch endpoint, with a JSON
+   * array of highscores. Every valid highscore is added with a single write, so a client with
+   * many highscores, for example one which has been offline, needs only one request. The array
+   * is read one highscore at a time, so a request with too many highscores is rejected as soon as
+   * the first one too many is found, instead of after the whole array has been read.
+   *
+   * <p>An element which is valid JSON, but not a highscore, is rejected on its own. JSON which is
+   * broken rejects the whole request, since the elements after it can not be found.
+
+   * @param body The body of the request.
+   * @return Whether each highscore was added, in the same order as the request.
+   * @throws IllegalArgumentException If the body is not a JSON array, or if there are more than
+   *     {@value #MAX_BATCH_SIZE} highscores.
+   * @throws IOException If the body could not be read.
+   */
+  @PostMapping(path = "/highscores/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public List<SubmissionResult> addHighscoreArray(InputStream body) throws IOException {
+    Batch batch = new Batch();
+    try (JsonParser parser = objectMapper.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new IllegalArgumentException("The body must be a JSON array of highscores");
+      }
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token == null) {
+          throw new IllegalArgumentException("The JSON array of highscores is not closed");
+        }
+        JsonNode element = parser.readValueAsTree();
+        try {
+          batch.add(scoreReader.readValue(element));
+        } catch (JsonProcessingException e) {
+          batch.reject("Not a valid highscore: " + e.getOriginalMessage());
+        }
+      }
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("The body is not valid JSON", e);
+    }
+    return addHighscores(batch);
+  }
+
+  /**
+   * This method is used to handle POST requests to the /highscores/batch endpoint, with one JSON
+   * highscore per line (NDJSON). The lines are read one at a time, so the whole body is never
+   * held as a single string. A line which is not a highscore is rejected on its own, and the
+   * other lines are still added. Empty lines are skipped, and do not count as highscores.
+
+   * @param body The body of the request.
+   * @return Whether each highscore was added, in the same order as the request.
+   * @throws IllegalArgumentException If there are more than {@value #MAX_BATCH_SIZE} highscores.
+   * @throws IOException If the body could not be read.
+   */
+  @PostMapping(path = "/highscores/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public List<SubmissionResult> addHighscoreLines(InputStream body) throws IOException {
+    Batch batch = new Batch();
+    BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    String line;
+    while ((line = lines.readLine()) != null) {
+      if (line.isBlank()) {
+        continue;
+      }
+      try {
+        batch.add(scoreReader.readValue(line));
+      } catch (JsonProcessingException e) {
+        batch.reject("Not a valid highscore: " + e.getOriginalMessage());
+      }
+    }
+    return addHighscores(batch);
+  }
+
+  private List<SubmissionResult> addHighscores(Batch batch) {
+    highscoreService.addHighscores(batch.valid);
+    return batch.results;
+  }
+
+  /**
+   * Checks that a highscore can be stored. The game never ends with a time outside 0 to
+   * {@value Stopwatch#MAX_TIME} seconds, and the stored formats rely on this.
+   */
+  private static void validate(UserScore userScore) {
+    Difficulty.fromName(userScore.getDifficulty());
+    if (userScore.getScore() < 0 || userScore.getScore() > Stopwatch.MAX_TIME) {
+      throw new IllegalArgumentException("The score must be between 0 and " + Stopwatch.MAX_TIME
+          + ", but was " + userScore.getScore());
+    }
+  }
+
+  private static String tooManyHighscores() {
+    return "At most " + MAX_BATCH_SIZE + " highscores can be sent at once";
+  }
+
   /**
    * This method is used to handle DELETE requests to the /highscores endpoint. It deletes all the
    * highscores from the highscore file.
@@ -61,4 +257,49 @@ public class HighscoreRestController {
   public void clearAllHighscores() {
     highscoreService.clearAllHighscores();
   }
-}
\ No newline at end of file
+
+  /**
+   * Answers requests with invalid content, like an unknown difficulty, with 400 Bad Request.
+
+   * @param e The exception describing what was wrong with the request.
+   * @return The reason the request was rejected.
+   */
+  @ExceptionHandler(IllegalArgumentException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public String handleInvalidRequest(IllegalArgumentException e) {
+    return e.getMessage();
+  }
+
+  /**
+   * The highscores of a batch request, checked one at a time while the request is read.
+   */
+  private static final class Batch {
+    private final List<SubmissionResult> results = new ArrayList<>();
+    private final List<UserScore> valid = new ArrayList<>();
+
+    private void add(UserScore userScore) {
+      int index = nextIndex();
+      try {
+        if (userScore == null) {
+          throw new IllegalArgumentException("Missing highscore");
+        }
+        validate(userScore);
+        valid.add(userScore);
+        results.add(SubmissionResult.accepted(index));
+      } catch (IllegalArgumentException e) {
+        results.add(SubmissionResult.rejected(index, e.getMessage()));
+      }
+    }
+
+    private void reject(String error) {
+      results.add(SubmissionResult.rejected(nextIndex(), error));
+    }
+
+    private int nextIndex() {
+      if (results.size() == MAX_BATCH_SIZE) {
+        throw new IllegalArgumentException(tooManyHighscores());
+      }
+      return results.size();
+    }
+  }
+}
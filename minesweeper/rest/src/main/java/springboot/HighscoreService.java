@@ -1,27 +1,257 @@
 package springboot;
 
 import core.UserScore;
+import core.savehandler.BinaryHighscoreFile;
 import core.savehandler.HighscoreFileManager;
+import core.savehandler.HighscoreLog;
+import core.savehandler.HighscoreWriteQueue;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * This class is used to get appropriate responses to HTTP requests.
  * The controller sends the requests to this class, which then
  * returns the appropriate response.
+ *
+ * <p>New highscores are appended to a log, instead of rewriting the whole highscore file,
+ * so adding a highscore takes the same time no matter how many there are. See
+ * {@link HighscoreLog}. All the highscores are also kept in memory, in a {@link Leaderboard},
+ * which is loaded once when the service starts. So reading the highscores does not have to read
+ * or parse any files.
+ *
+ * <p>New highscores go through a {@link HighscoreWriteQueue}, so only one thread ever writes to
+ * the log. Highscores which arrive at the same time are written together.
+ *
+ * <p>Clients can also follow the best highscores of a difficulty, and are then sent every new
+ * highscore which lands among them, see {@link LeaderboardBroadcaster}.
  */
 @Service
-public class HighscoreService {
+public class HighscoreService implements AutoCloseable {
+
+  private final HighscoreLog highscoreLog;
+  private final Leaderboard leaderboard = new Leaderboard();
+  private final HighscoreWriteQueue writeQueue;
+  private final LeaderboardBroadcaster broadcaster = new LeaderboardBroadcaster();
+  // Changing the leaderboard and publishing the change happen together, so that a client which
+  // subscribes never gets a change which is already part of its snapshot.
+  private final Object publishLock = new Object();
+  // Part of every version tag, so that tags from before a restart never match new ones.
+  private final String startTime = Long.toHexString(System.currentTimeMillis());
+
+  public HighscoreService() {
+    this(false, 0, "json");
+  }
+
+  /**
+   * Creates the service, and loads the highscores into memory.
+
+   * @param groupCommit Whether to wait a short window for more highscores before syncing them
+   *     to the disk, see {@link HighscoreWriteQueue}. Highscores are synced either way. Set with
+   *     the property {@code minesweeper.highscores.group-commit}.
+   * @param groupCommitWindowMillis How long to collect highscores before syncing them, in
+   *     milliseconds. Set with the property {@code minesweeper.highscores.group-commit-window-ms}.
+   * @param format The format of the highscore file, "json" or "binary". The binary format is
+   *     stored in its own file, see {@link BinaryHighscoreFile}. Set with the property
+   *     {@code minesweeper.highscores.format}.
+   */
+  @Autowired
+  public HighscoreService(
+      @Value("${minesweeper.highscores.group-commit:false}") boolean groupCommit,
+      @Value("${minesweeper.highscores.group-commit-window-ms:5}") long groupCommitWindowMillis,
+      @Value("${minesweeper.highscores.format:json}") String format) {
+    highscoreLog = createHighscoreLog(format);
+    leaderboard.load(highscoreLog.readAll());
+    writeQueue = new HighscoreWriteQueue(highscoreLog, this::addToLeaderboard,
+        HighscoreWriteQueue.DEFAULT_MAX_BATCH_SIZE,
+        groupCommit ? Duration.ofMillis(groupCommitWindowMillis) : null);
+  }
+
+  private static HighscoreLog createHighscoreLog(String format) {
+    if (!"binary".equalsIgnoreCase(format)) {
+      return new HighscoreLog(HighscoreFileManager.getFile(), HighscoreFileManager.getLogFile());
+    }
+
+    File binaryFile = HighscoreFileManager.getBinaryFile();
+    if (!binaryFile.exists() && HighscoreFileManager.getFile().exists()) {
+      // Start from the scores in the JSON file the first time the binary format is used.
+      try {
+        BinaryHighscoreFile.convert(HighscoreFileManager.getFile(), binaryFile);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return new HighscoreLog(binaryFile, HighscoreFileManager.getLogFile(),
+        HighscoreLog.DEFAULT_COMPACT_THRESHOLD, HighscoreLog.SnapshotFormat.BINARY);
+  }
+
+  private void addToLeaderboard(List<UserScore> userScores) {
+    synchronized (publishLock) {
+      broadcaster.publish(leaderboard.addAll(userScores));
+    }
+  }
+
+  /**
+   * Returns a tag which changes every time the highscores change, for use as an HTTP ETag.
+   * Get the tag before getting the highscores, so that they are never older than the tag.
+
+   * @return The tag, in quotes.
+   */
+  public String getVersionTag() {
+    return "\"" + startTime + "-" + leaderboard.getVersion() + "\"";
+  }
+
+  /**
+   * Returns when the highscores last changed.
+
+   * @return The time of the last change, in milliseconds since 1970-01-01.
+   */
+  public long getLastModified() {
+    return leaderboard.getLastModified();
+  }
 
   public List<UserScore> getAllHighscores() {
-    return HighscoreFileManager.readFromHighscore(HighscoreFileManager.getFile());
+    return leaderboard.getAll();
+  }
+
+  /**
+   * Returns a page of the best highscores.
+
+   * @param difficulty The difficulty to return highscores for, or null for every difficulty.
+   * @param offset How many of the best highscores to skip.
+   * @param limit The largest number of highscores to return.
+   * @return The highscores on the page, lower scores first.
+   */
+  public List<UserScore> getHighscores(String difficulty, int offset, int limit) {
+    return leaderboard.getPage(difficulty, offset, limit);
+  }
+
+  /**
+   * Finds the rank a score has among the highscores for a difficulty.
+
+   * @param difficulty The difficulty to rank the score among.
+   * @param score The score, in seconds.
+   * @return The rank of the score.
+   */
+  public ScoreRank getRank(String difficulty, int score) {
+    return leaderboard.getRank(difficulty, score);
+  }
+
+  /**
+   * Starts sending the best highscores of a difficulty to a client, and then every new highscore
+   * which lands among them.
+
+   * @param difficulty The difficulty to follow, like "EASY".
+   * @param top How many of the best highscores to follow.
+   * @return The emitter which sends the highscores to the client.
+   */
+  public SseEmitter subscribe(String difficulty, int top) {
+    synchronized (publishLock) {
+      return broadcaster.subscribe(difficulty, top, leaderboard.getPage(difficulty, 0, top));
+    }
   }
 
+  /**
+   * Adds a highscore to the end of the highscore log, and then to the leaderboard in memory.
+   * Waits until the highscore has been written.
+
+   * @param userScore The highscore to add.
+   * @throws UncheckedIOException If the highscore could not be written.
+   */
   public void addHighscore(UserScore userScore) {
-    HighscoreFileManager.writeToHighscore(userScore, HighscoreFileManager.getFile());
+    await(writeQueue.submit(userScore));
+  }
+
+  /**
+   * Adds several highscores with a single write to the highscore log, and then to the
+   * leaderboard in memory. Waits until the highscores have been written.
+
+   * @param userScores The highscores to add, in order.
+   * @throws UncheckedIOException If the highscores could not be written.
+   */
+  public void addHighscores(List<UserScore> userScores) {
+    await(writeQueue.submitAll(userScores));
+  }
+
+  private static void await(CompletableFuture<Void> written) {
+    try {
+      written.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw new UncheckedIOException((IOException) e.getCause());
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Reads all the highscores from the files again. Only needed if the files
+   * have been changed by something other than this service.
+   */
+  public synchronized void reloadHighscores() {
+    List<UserScore> userScores = highscoreLog.readAll();
+    synchronized (publishLock) {
+      leaderboard.load(userScores);
+      publishSnapshots();
+    }
+  }
+
+  /**
+   * Merges the highscore log into the highscore file right away.
+
+   * @throws UncheckedIOException If the highscore file could not be written.
+   */
+  public void compactHighscores() {
+    try {
+      highscoreLog.compact();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Removes all the highscores.
+
+   * @throws UncheckedIOException If the highscores could not be removed.
+   */
+  public synchronized void clearAllHighscores() {
+    try {
+      highscoreLog.clear();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    synchronized (publishLock) {
+      leaderboard.clear();
+      publishSnapshots();
+    }
+  }
+
+  private void publishSnapshots() {
+    broadcaster.publishSnapshots(
+        (difficulty, top) -> leaderboard.getPage(difficulty, 0, top));
   }
 
-  public void clearAllHighscores() {
-    HighscoreFileManager.clearHighscore(HighscoreFileManager.getFile());
+  /**
+   * Merges the highscore log into the highscore file when the server stops,
+   * so that the highscore file is complete on its own.
+   */
+  @Override
+  public void close() {
+    broadcaster.close();
+    writeQueue.close();
+    try {
+      highscoreLog.compact();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    highscoreLog.close();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,231 @@
+package springboot;
+
+import core.UserScore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps every highscore in memory, so that reading them does not touch the disk.
+ *
+ * <p>The scores are kept sorted by score, lower scores first, both for every score together and
+ * for each difficulty, see {@link ScoreBuckets}. A new score is placed after the scores which are
+ * equal to it, which is the same order the highscore file uses. Any number of threads can read at
+ * the same time, while adding or clearing waits for the readers to finish.
+ *
+ * <p>Reading every score copies them once after each change, and the copy is then shared by every
+ * reader until the next change. Pages only copy the scores on the page.
+ *
+ * <p>Every change increases the version of the leaderboard, so that clients can ask whether
+ * anything has changed since they last read it, instead of reading every score again.
+ */
+public class Leaderboard {
+
+  private final ScoreBuckets allScores = new ScoreBuckets();
+  private final Map<String, ScoreBuckets> scoresByDifficulty = new HashMap<>();
+  private final Map<String, ScoreRankIndex> ranksByDifficulty = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final AtomicLong version = new AtomicLong();
+  private volatile long lastModified = System.currentTimeMillis();
+  // Every score, copied the first time it is read after a change. Only set while holding a lock.
+  private volatile List<UserScore> allScoresCopy;
+
+  /**
+   * Replaces every score in the leaderboard.
+
+   * @param userScores the new scores, in any order
+   */
+  public void load(List<UserScore> userScores) {
+    lock.writeLock().lock();
+    try {
+      allScores.clear();
+      scoresByDifficulty.clear();
+      ranksByDifficulty.clear();
+      userScores.forEach(this::insert);
+      changed();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a score to the leaderboard.
+
+   * @param userScore the score to add
+   */
+  public void add(UserScore userScore) {
+    lock.writeLock().lock();
+    try {
+      insert(userScore);
+      changed();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds several scores to the leaderboard at once, so readers wait only once.
+
+   * @param userScores the scores to add, in the order they arrived
+   * @return where each score was placed, in the same order. Applying the changes one after
+   *     another to a copy of the scores for a difficulty gives the same list as the leaderboard.
+   */
+  public List<LeaderboardChange> addAll(List<UserScore> userScores) {
+    lock.writeLock().lock();
+    try {
+      List<LeaderboardChange> changes = new ArrayList<>(userScores.size());
+      for (UserScore userScore : userScores) {
+        int position = insert(userScore);
+        changes.add(new LeaderboardChange(userScore, position,
+            scoresByDifficulty.get(userScore.getDifficulty()).size()));
+      }
+      changed();
+      return changes;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes every score from the leaderboard.
+   */
+  public void clear() {
+    load(List.of());
+  }
+
+  /**
+   * Returns every score, sorted by score, lower scores first.
+
+   * @return an unmodifiable copy of the scores, which is not changed by later additions
+   */
+  public List<UserScore> getAll() {
+    List<UserScore> copy = allScoresCopy;
+    if (copy != null) {
+      return copy;
+    }
+    lock.readLock().lock();
+    try {
+      // No change can be made while the read lock is held, so the copy is still current when
+      // it is shared.
+      copy = List.copyOf(allScores.toList());
+      allScoresCopy = copy;
+      return copy;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the scores for one difficulty, sorted by score, lower scores first.
+
+   * @param difficulty the name of the difficulty, like "EASY" or "CUSTOM_30x16_99"
+   * @return a copy of the scores, which is empty if there are no scores for the difficulty
+   */
+  public List<UserScore> getByDifficulty(String difficulty) {
+    lock.readLock().lock();
+    try {
+      ScoreBuckets scores = scoresByDifficulty.get(difficulty);
+      return scores == null ? List.of() : List.copyOf(scores.toList());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns a page of the best scores, either for every difficulty or for a single one.
+   * Only the scores on the page are copied, no matter how many scores there are.
+
+   * @param difficulty the name of the difficulty, or null for every difficulty
+   * @param offset how many of the best scores to skip
+   * @param limit the largest number of scores to return
+   * @return a copy of the scores on the page, sorted by score, lower scores first
+   */
+  public List<UserScore> getPage(String difficulty, int offset, int limit) {
+    lock.readLock().lock();
+    try {
+      ScoreBuckets scores = difficulty == null ? allScores : scoresByDifficulty.get(difficulty);
+      return scores == null ? List.of() : List.copyOf(scores.page(offset, limit));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the rank a score has, or would have, among the scores for a difficulty.
+   * This takes O(log n) time, see {@link ScoreRankIndex}.
+
+   * @param difficulty the name of the difficulty
+   * @param score the score, in seconds
+   * @return the rank of the score
+   */
+  public ScoreRank getRank(String difficulty, int score) {
+    lock.readLock().lock();
+    try {
+      ScoreRankIndex index = ranksByDifficulty.get(difficulty);
+      if (index == null) {
+        return new ScoreRank(difficulty, score, 1, 0, 100.0);
+      }
+      int total = index.size();
+      return new ScoreRank(difficulty, score, index.countBelow(score) + 1, total,
+          100.0 * index.countAbove(score) / total);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the version of the leaderboard, which increases every time it changes. Read the
+   * version before reading the scores, so that the scores are never older than the version.
+
+   * @return the version
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * Returns when the leaderboard last changed.
+
+   * @return the time of the last change, in milliseconds since 1970-01-01
+   */
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  /**
+   * Returns the number of scores in the leaderboard.
+
+   * @return the number of scores, for every difficulty together
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return allScores.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void changed() {
+    allScoresCopy = null;
+    lastModified = System.currentTimeMillis();
+    version.incrementAndGet();
+  }
+
+  /**
+   * Inserts the score, and returns its position among the scores for its difficulty,
+   * 1 for the best score.
+   */
+  private int insert(UserScore userScore) {
+    allScores.add(userScore);
+    int index = scoresByDifficulty.computeIfAbsent(userScore.getDifficulty(),
+        difficulty -> new ScoreBuckets()).add(userScore);
+    ranksByDifficulty.computeIfAbsent(userScore.getDifficulty(),
+        difficulty -> new ScoreRankIndex()).add(userScore.getScore());
+    return index + 1;
+  }
+}
@@ -0,0 +1,183 @@
+package springboot;
+
+import core.UserScore;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes changes to the leaderboard to clients which keep a connection open, with Server-Sent
+ * Events. A client which shows the highscores then does not have to read them again and again to
+ * see new scores.
+ *
+ * <p>Every client follows the best highscores of one difficulty. It first gets a
+ * {@code snapshot} event with those highscores, and then a {@code score} event for every new
+ * score which lands among them, see {@link LeaderboardChange}. Scores which land further down are
+ * not sent, since they do not change what the client shows. If the leaderboard is replaced, for
+ * example when it is cleared, every client gets a new {@code snapshot}.
+ *
+ * <p>All events are sent from one thread, in the order they were published, so a slow client
+ * never holds up the thread which writes the highscores. The events must be published in the same
+ * order as the changes were made to the leaderboard, and a snapshot must not be taken while a
+ * change is being published. {@link HighscoreService} makes sure of this.
+ */
+public class LeaderboardBroadcaster implements AutoCloseable {
+
+  /**
+   * How often an empty comment is sent to every client, so that connections are not closed for
+   * being idle, and clients which have gone away are noticed.
+   */
+  public static final long HEARTBEAT_SECONDS = 15;
+
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService sender;
+
+  /**
+   * Creates a broadcaster, and starts the thread which sends the events.
+   */
+  public LeaderboardBroadcaster() {
+    sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "leaderboard-events");
+      thread.setDaemon(true);
+      return thread;
+    });
+    sender.scheduleAtFixedRate(this::sendHeartbeats, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS,
+        TimeUnit.SECONDS);
+  }
+
+  /**
+   * Adds a client, which is sent the best highscores of a difficulty right away, and then every
+   * change to them.
+
+   * @param difficulty The difficulty to follow, like "EASY".
+   * @param top How many of the best highscores the client shows.
+   * @param highscores The best highscores of the difficulty right now, at most top of them.
+   * @return The emitter which sends the events, which Spring keeps the connection open for.
+   */
+  public SseEmitter subscribe(String difficulty, int top, List<UserScore> highscores) {
+    // The connection stays open until the client or the server closes it.
+    SseEmitter emitter = new SseEmitter(0L);
+    if (sender.isShutdown()) {
+      emitter.complete();
+      return emitter;
+    }
+
+    Subscriber subscriber = new Subscriber(emitter, difficulty, top);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    sender.execute(() -> sendSnapshot(subscriber, highscores));
+    return emitter;
+  }
+
+  /**
+   * Sends new scores to the clients which follow their difficulty, if the scores land among the
+   * highscores the clients show.
+
+   * @param changes The new scores, in the order they were added to the leaderboard.
+   */
+  public void publish(List<LeaderboardChange> changes) {
+    if (changes.isEmpty() || subscribers.isEmpty()) {
+      return;
+    }
+    // Clients which subscribe after this got the scores in their snapshot already.
+    List<Subscriber> receivers = List.copyOf(subscribers);
+    execute(() -> {
+      for (LeaderboardChange change : changes) {
+        for (Subscriber subscriber : receivers) {
+          if (subscriber.follows(change)) {
+            send(subscriber, SseEmitter.event().name("score")
+                .data(change, MediaType.APPLICATION_JSON));
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Sends every client a new snapshot, after the leaderboard has been replaced.
+
+   * @param highscores Finds the best highscores of a difficulty, given the difficulty and how
+   *     many of them to find.
+   */
+  public void publishSnapshots(BiFunction<String, Integer, List<UserScore>> highscores) {
+    for (Subscriber subscriber : subscribers) {
+      List<UserScore> snapshot = highscores.apply(subscriber.difficulty, subscriber.top);
+      execute(() -> sendSnapshot(subscriber, snapshot));
+    }
+  }
+
+  /**
+   * Returns the number of clients which are connected.
+
+   * @return the number of clients
+   */
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  /**
+   * Stops sending events, and closes the connection to every client.
+   */
+  @Override
+  public void close() {
+    sender.shutdownNow();
+    for (Subscriber subscriber : subscribers) {
+      subscriber.emitter.complete();
+    }
+    subscribers.clear();
+  }
+
+  private void execute(Runnable task) {
+    if (!sender.isShutdown()) {
+      sender.execute(task);
+    }
+  }
+
+  private void sendSnapshot(Subscriber subscriber, List<UserScore> highscores) {
+    send(subscriber, SseEmitter.event().name("snapshot")
+        .data(highscores, MediaType.APPLICATION_JSON));
+  }
+
+  private void sendHeartbeats() {
+    for (Subscriber subscriber : subscribers) {
+      send(subscriber, SseEmitter.event().comment("heartbeat"));
+    }
+  }
+
+  private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+    try {
+      subscriber.emitter.send(event);
+    } catch (IOException | IllegalStateException e) {
+      // The client has gone away. Spring completes the emitter on its own.
+      subscribers.remove(subscriber);
+    }
+  }
+
+  /**
+   * A connected client, and the highscores it follows.
+   */
+  private static final class Subscriber {
+    private final SseEmitter emitter;
+    private final String difficulty;
+    private final int top;
+
+    private Subscriber(SseEmitter emitter, String difficulty, int top) {
+      this.emitter = emitter;
+      this.difficulty = difficulty;
+      this.top = top;
+    }
+
+    private boolean follows(LeaderboardChange change) {
+      return difficulty.equals(change.getUserScore().getDifficulty())
+          && change.getPosition() <= top;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package springboot;
+
+import core.UserScore;
+
+/**
+ * A new score, and the place it got among the highscores of its difficulty. This is what the
+ * highscore stream sends when a score is added, converted to JSON.
+ *
+ * <p>A client which has the best highscores for the difficulty can insert the score at its
+ * position, which moves every score below it one place down, instead of reading the list again.
+ */
+public class LeaderboardChange {
+
+  private final UserScore userScore;
+  private final int position;
+  private final int total;
+
+  /**
+   * Creates a change.
+
+   * @param userScore The score which was added.
+   * @param position The place of the score among the highscores of its difficulty, 1 for the
+   *     best score. A score which is equal to others is placed after them.
+   * @param total The number of highscores for the difficulty, with the new score.
+   */
+  public LeaderboardChange(UserScore userScore, int position, int total) {
+    this.userScore = userScore;
+    this.position = position;
+    this.total = total;
+  }
+
+  public UserScore getUserScore() {
+    return userScore;
+  }
+
+  public int getPosition() {
+    return position;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+}
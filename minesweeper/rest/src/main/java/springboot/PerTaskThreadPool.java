@@ -0,0 +1,82 @@
+package springboot;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * A thread pool for Jetty which is not a pool: every task gets a thread of its own, from an
+ * executor made by {@link ServerThreads#newPerTaskExecutor(String)}. So there is no limit to how
+ * many requests can wait at the same time, and no number of threads to choose.
+ *
+ * <p>Jetty starts and stops the pool together with the server.
+ */
+public class PerTaskThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+  private final ExecutorService executor;
+  private final AtomicInteger running = new AtomicInteger();
+
+  /**
+   * Creates a pool which runs every task on its own thread.
+
+   * @param name The name of the threads, followed by a number.
+   */
+  public PerTaskThreadPool(String name) {
+    this.executor = ServerThreads.newPerTaskExecutor(name);
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    executor.execute(() -> {
+      running.incrementAndGet();
+      try {
+        task.run();
+      } finally {
+        running.decrementAndGet();
+      }
+    });
+  }
+
+  @Override
+  protected void doStop() throws Exception {
+    executor.shutdownNow();
+    executor.awaitTermination(getStopTimeout(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void join() throws InterruptedException {
+    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the number of tasks which are running, which is the same as the number of threads.
+
+   * @return the number of threads
+   */
+  @Override
+  public int getThreads() {
+    return running.get();
+  }
+
+  /**
+   * Returns 0, since a thread is made for every task instead of tasks waiting for idle threads.
+
+   * @return 0
+   */
+  @Override
+  public int getIdleThreads() {
+    return 0;
+  }
+
+  /**
+   * A new thread can always be started, so the pool is never low on threads.
+
+   * @return false
+   */
+  @Override
+  public boolean isLowOnThreads() {
+    return false;
+  }
+}
@@ -0,0 +1,88 @@
+package springboot;
+
+import core.UserScore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps scores sorted by score, lower scores first, grouped in one bucket per score value.
+ *
+ * <p>A sorted list has to move every score behind a new one to make room for it. Here a new
+ * score is instead added to the end of the bucket for its value, which keeps scores which are
+ * equal in the order they were added. Scores are whole seconds up to
+ * {@link core.Stopwatch#MAX_TIME}, so there are at most about a thousand buckets, and finding
+ * the place of a score or the start of a page only has to step over buckets, not scores.
+ *
+ * <p>This class is not thread-safe, the {@link Leaderboard} takes care of that.
+ */
+public class ScoreBuckets {
+
+  private final TreeMap<Integer, List<UserScore>> buckets = new TreeMap<>();
+  private int size;
+
+  /**
+   * Adds a score after every score which is lower or equal.
+
+   * @param userScore the score to add
+   * @return the index the score got, 0 for the best score
+   */
+  public int add(UserScore userScore) {
+    int index = 0;
+    for (List<UserScore> bucket : buckets.headMap(userScore.getScore(), true).values()) {
+      index += bucket.size();
+    }
+    buckets.computeIfAbsent(userScore.getScore(), score -> new ArrayList<>()).add(userScore);
+    size++;
+    return index;
+  }
+
+  /**
+   * Copies a page of the scores.
+
+   * @param offset how many of the best scores to skip
+   * @param limit the largest number of scores to copy
+   * @return the scores on the page, lower scores first
+   */
+  public List<UserScore> page(int offset, int limit) {
+    List<UserScore> page = new ArrayList<>((int) Math.min(limit, Math.max(size - offset, 0)));
+    int skip = offset;
+    for (Map.Entry<Integer, List<UserScore>> entry : buckets.entrySet()) {
+      List<UserScore> bucket = entry.getValue();
+      if (skip >= bucket.size()) {
+        // The whole bucket is before the page.
+        skip -= bucket.size();
+        continue;
+      }
+      int to = (int) Math.min(bucket.size(), (long) skip + limit - page.size());
+      page.addAll(bucket.subList(skip, to));
+      skip = 0;
+      if (page.size() == limit) {
+        break;
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Copies every score.
+
+   * @return the scores, lower scores first
+   */
+  public List<UserScore> toList() {
+    return page(0, size);
+  }
+
+  /**
+   * Removes every score.
+   */
+  public void clear() {
+    buckets.clear();
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+}
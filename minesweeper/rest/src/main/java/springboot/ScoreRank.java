@@ -0,0 +1,51 @@
+package springboot;
+
+/**
+ * The rank of a score among the highscores of a difficulty. This is what the rank endpoint
+ * returns, converted to JSON.
+ */
+public class ScoreRank {
+
+  private final String difficulty;
+  private final int score;
+  private final int rank;
+  private final int total;
+  private final double percentile;
+
+  /**
+   * Creates a rank.
+
+   * @param difficulty The difficulty of the highscores the score is ranked among.
+   * @param score The score, in seconds.
+   * @param rank The place of the score, 1 for the best score. Equal scores share a place.
+   * @param total The number of highscores the score is ranked among.
+   * @param percentile How many percent of the highscores are worse than the score.
+   */
+  public ScoreRank(String difficulty, int score, int rank, int total, double percentile) {
+    this.difficulty = difficulty;
+    this.score = score;
+    this.rank = rank;
+    this.total = total;
+    this.percentile = percentile;
+  }
+
+  public String getDifficulty() {
+    return difficulty;
+  }
+
+  public int getScore() {
+    return score;
+  }
+
+  public int getRank() {
+    return rank;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  public double getPercentile() {
+    return percentile;
+  }
+}
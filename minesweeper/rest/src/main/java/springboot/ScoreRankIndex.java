@@ -0,0 +1,71 @@
+package springboot;
+
+import core.Stopwatch;
+
+/**
+ * Counts scores by value, so that the rank of a score can be found in O(log n) time without
+ * looking at the scores themselves.
+ *
+ * <p>A score is a time in whole seconds, and the stopwatch never shows more than
+ * {@link Stopwatch#MAX_TIME} seconds, so there is one bucket per possible score. The buckets are
+ * kept in a Fenwick tree (binary indexed tree), where both adding a score and counting the scores
+ * below a value touch about log2(1000) = 10 entries. Times above the maximum are counted as the
+ * maximum.
+ */
+public class ScoreRankIndex {
+
+  private static final int BUCKETS = Stopwatch.MAX_TIME + 1;
+
+  // tree[i] holds the number of scores in a range of buckets ending at bucket i - 1,
+  // the length of the range is the lowest set bit of i.
+  private final int[] tree = new int[BUCKETS + 1];
+  private int size;
+
+  /**
+   * Counts a new score.
+
+   * @param score the score, in seconds
+   */
+  public void add(int score) {
+    for (int i = bucket(score) + 1; i <= BUCKETS; i += i & -i) {
+      tree[i]++;
+    }
+    size++;
+  }
+
+  /**
+   * Returns the number of scores which are better (lower) than the given score.
+
+   * @param score the score, in seconds
+   * @return the number of lower scores
+   */
+  public int countBelow(int score) {
+    return countInFirstBuckets(bucket(score));
+  }
+
+  /**
+   * Returns the number of scores which are worse (higher) than the given score.
+
+   * @param score the score, in seconds
+   * @return the number of higher scores
+   */
+  public int countAbove(int score) {
+    return size - countInFirstBuckets(bucket(score) + 1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private int countInFirstBuckets(int buckets) {
+    int count = 0;
+    for (int i = buckets; i > 0; i -= i & -i) {
+      count += tree[i];
+    }
+    return count;
+  }
+
+  private static int bucket(int score) {
+    return Math.max(0, Math.min(score, Stopwatch.MAX_TIME));
+  }
+}
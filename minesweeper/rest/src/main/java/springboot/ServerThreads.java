@@ -0,0 +1,115 @@
+package springboot;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses the threads Jetty handles requests on. Set with the property
+ * {@code minesweeper.server.threads}:
+ *
+ * <ul>
+ *   <li>{@code pool}: Jetty's own pool, which has at most 200 threads. When all of them are busy,
+ *   for example with slow clients, new requests wait in a queue. This is the default.</li>
+ *   <li>{@code virtual}: every request gets a thread of its own, see {@link PerTaskThreadPool}.
+ *   On Java 21 or newer these are virtual threads, which cost so little that a request can block
+ *   on the disk or on a slow client without holding anyone else up. On older versions of Java a
+ *   new platform thread is started for every request instead, and threads are reused when they
+ *   are idle.</li>
+ * </ul>
+ *
+ * <p>The highscores themselves are still written by the single writer thread of the
+ * {@link core.savehandler.HighscoreWriteQueue}. A request which adds a highscore waits for it,
+ * which is cheap on a virtual thread.
+ */
+@Component
+public class ServerThreads
+    implements WebServerFactoryCustomizer<JettyServletWebServerFactory>, Ordered {
+
+  private final boolean perTask;
+
+  /**
+   * Creates the customizer.
+
+   * @param threads "pool" or "virtual", see the class description.
+   * @throws IllegalArgumentException If the mode is unknown.
+   */
+  @Autowired
+  public ServerThreads(@Value("${minesweeper.server.threads:pool}") String threads) {
+    if (!"pool".equalsIgnoreCase(threads) && !"virtual".equalsIgnoreCase(threads)) {
+      throw new IllegalArgumentException("Unknown thread mode " + threads
+          + ", it must be pool or virtual");
+    }
+    this.perTask = "virtual".equalsIgnoreCase(threads);
+  }
+
+  @Override
+  public void customize(JettyServletWebServerFactory factory) {
+    if (perTask) {
+      factory.setThreadPool(new PerTaskThreadPool("jetty-request-"));
+    }
+  }
+
+  /**
+   * Runs after the customizers of Spring Boot, so that the thread pool chosen here is kept.
+
+   * @return the lowest precedence
+   */
+  @Override
+  public int getOrder() {
+    return Ordered.LOWEST_PRECEDENCE;
+  }
+
+  /**
+   * Checks whether this version of Java has virtual threads, which came in Java 21.
+
+   * @return true if virtual threads can be used
+   */
+  public static boolean hasVirtualThreads() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Creates an executor which starts a new virtual thread for every task. Without virtual
+   * threads, it starts a new platform thread for every task which arrives while the other
+   * threads are busy, and lets threads which have been idle for a minute end.
+
+   * @param name The name of the threads, followed by a number.
+   * @return The executor, which must be shut down when it is no longer needed.
+   */
+  public static ExecutorService newPerTaskExecutor(String name) {
+    if (hasVirtualThreads()) {
+      // The virtual thread methods are looked up by reflection, so that this still compiles
+      // and runs on Java 17.
+      try {
+        Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        builder = builderClass.getMethod("name", String.class, long.class)
+            .invoke(builder, name, 0L);
+        ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        Method newThreadPerTaskExecutor =
+            Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+      } catch (ReflectiveOperationException e) {
+        // Fall back to platform threads below.
+      }
+    }
+
+    AtomicLong count = new AtomicLong();
+    return Executors.newCachedThreadPool(
+        task -> new Thread(task, name + count.getAndIncrement()));
+  }
+}
@@ -1,7 +1,11 @@
 package springboot;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import core.JsonCodec;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 
 /**
  * This class is used to start the Spring Boot application.
@@ -14,4 +18,18 @@ public class SpringApp {
   public static void main(String[] args) {
     SpringApplication.run(SpringApp.class, args);
   }
+
+  /**
+   * Makes Spring convert requests and responses to and from JSON with the same settings as
+   * the rest of the game. Unknown properties in requests are still ignored, as they are by the
+   * ObjectMapper Spring makes itself.
+
+   * @return the ObjectMapper Spring should use
+   * @see JsonCodec
+   */
+  @Bean
+  public ObjectMapper objectMapper() {
+    return JsonCodec.newObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package springboot;
+
+/**
+ * Whether one of the highscores sent to the batch endpoint was added, and if not, why. This is
+ * what the batch endpoint returns for every highscore, converted to JSON.
+ */
+public class SubmissionResult {
+
+  private final int index;
+  private final boolean accepted;
+  private final String error;
+
+  private SubmissionResult(int index, boolean accepted, String error) {
+    this.index = index;
+    this.accepted = accepted;
+    this.error = error;
+  }
+
+  /**
+   * Creates the result of a highscore which was added.
+
+   * @param index The place of the highscore in the request, 0 for the first.
+   * @return The result.
+   */
+  public static SubmissionResult accepted(int index) {
+    return new SubmissionResult(index, true, null);
+  }
+
+  /**
+   * Creates the result of a highscore which was not added.
+
+   * @param index The place of the highscore in the request, 0 for the first.
+   * @param error Why the highscore was not added.
+   * @return The result.
+   */
+  public static SubmissionResult rejected(int index, String error) {
+    return new SubmissionResult(index, false, error);
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public boolean isAccepted() {
+    return accepted;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
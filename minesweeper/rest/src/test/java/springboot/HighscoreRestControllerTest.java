@@ -10,6 +10,7 @@ import org.springframework.http.MediaType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import core.UserScore;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -61,6 +62,109 @@ public class HighscoreRestControllerTest {
         .andExpect(content().json(objectMapper.writeValueAsString(highscores)));
   }
 
+  @Test
+  public void testConditionalGet() throws Exception {
+    List<UserScore> highscores = Arrays.asList(new UserScore("oskar", 15, "2023-10-15", "EASY"));
+    when(highscoreService.getAllHighscores()).thenReturn(highscores);
+    when(highscoreService.getVersionTag()).thenReturn("\"18b-3\"");
+    when(highscoreService.getLastModified()).thenReturn(1700000000000L);
+
+    mockMvc.perform(get("/highscores"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"18b-3\""))
+        .andExpect(header().exists("Last-Modified"))
+        .andExpect(content().json(objectMapper.writeValueAsString(highscores)));
+
+    // Nothing has changed, so the highscores are not sent again.
+    mockMvc.perform(get("/highscores").header("If-None-Match", "\"18b-3\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", "\"18b-3\""))
+        .andExpect(content().string(""));
+
+    // A highscore has been added since the client read them.
+    mockMvc.perform(get("/highscores").header("If-None-Match", "\"18b-2\""))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  public void testGetHighscoresPage() throws Exception {
+    UserScore oskar = new UserScore("oskar", 15, "2023-10-15", "HARD");
+    List<UserScore> highscores = Arrays.asList(oskar);
+
+    when(highscoreService.getHighscores("HARD", 10, 5)).thenReturn(highscores);
+
+    mockMvc.perform(get("/highscores").param("difficulty", "HARD")
+        .param("offset", "10").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(objectMapper.writeValueAsString(highscores)));
+
+    // Without a limit every highscore after the offset is returned.
+    mockMvc.perform(get("/highscores").param("difficulty", "HARD"))
+        .andExpect(status().isOk());
+    verify(highscoreService, times(1)).getHighscores("HARD", 0, Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void testGetHighscoresInvalidParameters() throws Exception {
+    mockMvc.perform(get("/highscores").param("difficulty", "IMPOSSIBLE"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/highscores").param("limit", "-1"))
+        .andExpect(status().isBadRequest());
+
+    verify(highscoreService, never()).getHighscores(any(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void testGetRank() throws Exception {
+    ScoreRank rank = new ScoreRank("HARD", 42, 3, 10, 70.0);
+    when(highscoreService.getRank("HARD", 42)).thenReturn(rank);
+
+    mockMvc.perform(get("/highscores/rank").param("difficulty", "HARD").param("score", "42"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rank").value(3))
+        .andExpect(jsonPath("$.total").value(10))
+        .andExpect(jsonPath("$.percentile").value(70.0));
+
+    mockMvc.perform(get("/highscores/rank").param("difficulty", "IMPOSSIBLE").param("score", "42"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testStreamHighscores() throws Exception {
+    UserScore oskar = new UserScore("oskar", 15, "2023-10-15", "EASY");
+    UserScore david = new UserScore("david", 10, "2023-10-16", "EASY");
+    UserScore bert = new UserScore("bert", 90, "2023-10-17", "EASY");
+    try (LeaderboardBroadcaster broadcaster = new LeaderboardBroadcaster()) {
+      when(highscoreService.subscribe("EASY", 2))
+          .thenAnswer(invocation -> broadcaster.subscribe("EASY", 2, List.of(oskar)));
+
+      MvcResult result = mockMvc.perform(get("/highscores/stream")
+          .param("difficulty", "EASY").param("top", "2"))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+
+      // Bert lands outside the top 2, so only David is sent.
+      broadcaster.publish(List.of(new LeaderboardChange(david, 1, 2),
+          new LeaderboardChange(bert, 3, 3)));
+      String expected = "event:snapshot\ndata:" + objectMapper.writeValueAsString(List.of(oskar))
+          + "\n\nevent:score\ndata:"
+          + objectMapper.writeValueAsString(new LeaderboardChange(david, 1, 2)) + "\n\n";
+      long deadline = System.currentTimeMillis() + 5000;
+      while (!result.getResponse().getContentAsString().equals(expected)
+          && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(expected, result.getResponse().getContentAsString());
+      assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE,
+          result.getResponse().getContentType().split(";")[0]);
+    }
+
+    mockMvc.perform(get("/highscores/stream").param("difficulty", "IMPOSSIBLE"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/highscores/stream").param("difficulty", "EASY").param("top", "0"))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   public void testAddHighscore() throws Exception {
     UserScore oskar = new UserScore("oskar", 15, "2023-10-15", "EASY");
@@ -86,6 +190,147 @@ public class HighscoreRestControllerTest {
     assertEquals("EASY", capturedUser.getDifficulty());
   }
 
+  @Test
+  public void testAddCustomHighscore() throws Exception {
+    UserScore oskar = new UserScore("oskar", 95, "2023-10-15", "CUSTOM_30x16_99");
+
+    mockMvc.perform(post("/highscores")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(objectMapper.writeValueAsString(oskar)))
+      .andExpect(status().isOk());
+
+    verify(highscoreService, times(1)).addHighscore(any(UserScore.class));
+  }
+
+  @Test
+  public void testAddHighscoreWithInvalidDifficulty() throws Exception {
+    UserScore oskar = new UserScore("oskar", 15, "2023-10-15", "CUSTOM_3x3_99");
+
+    mockMvc.perform(post("/highscores")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(objectMapper.writeValueAsString(oskar)))
+      .andExpect(status().isBadRequest()); // The board has no room for 99 bombs.
+
+    verify(highscoreService, never()).addHighscore(any(UserScore.class));
+  }
+
+  @Test
+  public void testAddHighscoreWithInvalidScore() throws Exception {
+    for (int score : new int[] {-1, 1000}) {
+      mockMvc.perform(post("/highscores")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(
+            new UserScore("oskar", score, "2023-10-15", "EASY"))))
+        .andExpect(status().isBadRequest());
+    }
+    verify(highscoreService, never()).addHighscore(any(UserScore.class));
+
+    mockMvc.perform(post("/highscores/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(objectMapper.writeValueAsString(
+          List.of(new UserScore("david", 70000, "2023-10-08", "HARD")))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].accepted").value(false));
+  }
+
+  @Test
+  public void testAddHighscoresBatch() throws Exception {
+    UserScore oskar = new UserScore("oskar", 15, "2023-10-15", "EASY");
+    UserScore invalid = new UserScore("david", 20, "2023-10-08", "IMPOSSIBLE");
+    UserScore bert = new UserScore("bert", 95, "2023-10-09", "CUSTOM_30x16_99");
+
+    mockMvc.perform(post("/highscores/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(objectMapper.writeValueAsString(List.of(oskar, invalid, bert))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(3))
+      .andExpect(jsonPath("$[0].accepted").value(true))
+      .andExpect(jsonPath("$[1].index").value(1))
+      .andExpect(jsonPath("$[1].accepted").value(false))
+      .andExpect(jsonPath("$[1].error").isNotEmpty())
+      .andExpect(jsonPath("$[2].accepted").value(true));
+
+    // The valid highscores are added together, with one call.
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<UserScore>> captor = ArgumentCaptor.forClass(List.class);
+    verify(highscoreService, times(1)).addHighscores(captor.capture());
+    assertEquals(List.of("oskar", "bert"),
+        captor.getValue().stream().map(UserScore::getName).toList());
+    verify(highscoreService, never()).addHighscore(any(UserScore.class));
+  }
+
+  @Test
+  public void testAddHighscoresNdjson() throws Exception {
+    UserScore oskar = new UserScore("oskar", 15, "2023-10-15", "EASY");
+    UserScore david = new UserScore("david", 20, "2023-10-08", "HARD");
+
+    mockMvc.perform(post("/highscores/batch")
+      .contentType(MediaType.APPLICATION_NDJSON)
+      .content(oskar.toJson() + "\n" + david.toJson() + "\n"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(2))
+      .andExpect(jsonPath("$[1].accepted").value(true));
+    verify(highscoreService, times(1)).addHighscores(anyList());
+
+    // A line which is not a highscore is rejected on its own.
+    mockMvc.perform(post("/highscores/batch")
+      .contentType(MediaType.APPLICATION_NDJSON)
+      .content(oskar.toJson() + "\nnot a highscore\n\n" + david.toJson() + "\n"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(3))
+      .andExpect(jsonPath("$[0].accepted").value(true))
+      .andExpect(jsonPath("$[1].accepted").value(false))
+      .andExpect(jsonPath("$[1].error").isNotEmpty())
+      .andExpect(jsonPath("$[2].index").value(2))
+      .andExpect(jsonPath("$[2].accepted").value(true));
+    verify(highscoreService, times(2)).addHighscores(anyList());
+
+    // So is an element of a JSON array which is not a highscore.
+    mockMvc.perform(post("/highscores/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content("[{\"score\":\"fast\"}," + oskar.toJson() + "]"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].accepted").value(false))
+      .andExpect(jsonPath("$[1].accepted").value(true));
+  }
+
+  @Test
+  public void testAddTooManyHighscores() throws Exception {
+    String oskar = new UserScore("oskar", 15, "2023-10-15", "EASY").toJson();
+    StringBuilder array = new StringBuilder("[").append(oskar);
+    for (int i = 0; i < HighscoreRestController.MAX_BATCH_SIZE; i++) {
+      array.append(",").append(oskar);
+    }
+
+    mockMvc.perform(post("/highscores/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(array.append("]").toString()))
+      .andExpect(status().isBadRequest());
+    mockMvc.perform(post("/highscores/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content("[" + oskar))
+      .andExpect(status().isBadRequest());
+    verify(highscoreService, never()).addHighscores(anyList());
+  }
+
+  @Test
+  public void testAddHighscoresWithUnknownProperty() throws Exception {
+    String oskar = "{\"name\":\"oskar\",\"score\":15,\"date\":\"2023-10-15\","
+        + "\"difficulty\":\"EASY\",\"rank\":1}";
+
+    // Both formats of the batch endpoint read highscores the same way.
+    mockMvc.perform(post("/highscores/batch")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content("[" + oskar + "]"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].accepted").value(true));
+    mockMvc.perform(post("/highscores/batch")
+      .contentType(MediaType.APPLICATION_NDJSON)
+      .content(oskar + "\n"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].accepted").value(true));
+  }
+
   @Test
   public void testClearHighscore() throws Exception {
 
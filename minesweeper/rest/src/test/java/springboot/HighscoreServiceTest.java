@@ -50,8 +50,15 @@ public class HighscoreServiceTest {
   @Autowired
   private ObjectMapper objectMapper; 
 
+  // New highscores are appended to a log, so it is merged into the highscore file
+  // before the file is read directly. And the highscores are kept in memory, so the
+  // service must reload them after the file is changed directly.
+  @Autowired
+  private HighscoreService highscoreService;
+
   @Test
   public void testGetAllHighscores() throws Exception {
+    highscoreService.compactHighscores();
 
     List<UserScore> highscores = objectMapper.readValue(new FileInputStream(highscorePath),
         new TypeReference<List<UserScore>>() {
@@ -88,6 +95,7 @@ public class HighscoreServiceTest {
         // Set the content of the request to the oskar UserScore object written as a JSON string.
         .andExpect(status().isOk()); // Expect the status code to be 200 (OK).
 
+    highscoreService.compactHighscores();
     List<UserScore> highscores = objectMapper.readValue(new FileInputStream(highscorePath),
         new TypeReference<List<UserScore>>() {
         }); // Read in the userScores from the highscore.json file.
@@ -100,12 +108,14 @@ public class HighscoreServiceTest {
     // Delete oskar from the highscore file, he is only there for testing purposes.
     HighscoreFileManager.deleteFromHighscore(oskar.getName(), oskar.getScore(), oskar.getDate(), oskar.getDifficulty(),
         HighscoreFileManager.getFile());
+    highscoreService.reloadHighscores(); // The file was changed behind the back of the service.
   }
 
   @Test
   public void clearAllHighscores() throws Exception {
 
     // Start by saving the original highscores.
+    highscoreService.compactHighscores();
     List<UserScore> highscores = objectMapper.readValue(new FileInputStream(highscorePath),
         new TypeReference<List<UserScore>>() {
         });
@@ -123,5 +133,6 @@ public class HighscoreServiceTest {
     // Write the original highscores back to the highscore file.
     highscores.stream()
         .forEach(highscore -> HighscoreFileManager.writeToHighscore(highscore, HighscoreFileManager.getFile()));
+    highscoreService.reloadHighscores();
   }
 }
@@ -0,0 +1,98 @@
+package springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import core.UserScore;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class LeaderboardTest {
+
+  private final UserScore bert = new UserScore("Bert", 100, "2020-10-04", "EASY");
+  private final UserScore bernard = new UserScore("Bernard", 30, "2021-09-08", "HARD");
+  private final UserScore alfred = new UserScore("Alfred", 100, "2021-09-15", "EASY");
+
+  @Test
+  public void testLoadAndAdd() {
+    Leaderboard leaderboard = new Leaderboard();
+    leaderboard.load(List.of(bert, bernard));
+    leaderboard.add(alfred);
+
+    assertEquals(List.of(bernard, bert, alfred), leaderboard.getAll(),
+        "Scores should be sorted, and equal scores should keep the order they were added in.");
+    assertEquals(List.of(bert, alfred), leaderboard.getByDifficulty("EASY"));
+    assertEquals(List.of(bernard), leaderboard.getByDifficulty("HARD"));
+    assertTrue(leaderboard.getByDifficulty("MEDIUM").isEmpty());
+  }
+
+  @Test
+  public void testVersion() {
+    Leaderboard leaderboard = new Leaderboard();
+    long version = leaderboard.getVersion();
+    leaderboard.getAll();
+    assertEquals(version, leaderboard.getVersion(), "Reading should not change the version.");
+
+    leaderboard.add(bert);
+    leaderboard.addAll(List.of(bernard, alfred));
+    leaderboard.clear();
+    assertEquals(version + 3, leaderboard.getVersion(), "Every change should be a new version.");
+  }
+
+  @Test
+  public void testAddAllReturnsPositions() {
+    Leaderboard leaderboard = new Leaderboard();
+    leaderboard.add(bert);
+    List<LeaderboardChange> changes = leaderboard.addAll(List.of(alfred, bernard,
+        new UserScore("Carl", 50, "2021-09-16", "EASY")));
+
+    assertEquals(3, changes.size());
+    assertEquals(2, changes.get(0).getPosition(), "Equal scores are placed after the others.");
+    assertEquals(2, changes.get(0).getTotal());
+    assertEquals(1, changes.get(1).getPosition(), "Every difficulty has its own positions.");
+    assertEquals(1, changes.get(1).getTotal());
+    assertEquals(1, changes.get(2).getPosition());
+    assertEquals(3, changes.get(2).getTotal());
+  }
+
+  @Test
+  public void testCopiesAreNotChanged() {
+    Leaderboard leaderboard = new Leaderboard();
+    leaderboard.add(bert);
+    List<UserScore> before = leaderboard.getAll();
+    leaderboard.add(bernard);
+
+    assertEquals(1, before.size(), "A list which has been read should not change.");
+    assertEquals(2, leaderboard.size());
+
+    leaderboard.clear();
+    assertEquals(0, leaderboard.size());
+    assertTrue(leaderboard.getByDifficulty("EASY").isEmpty());
+  }
+
+  @Test
+  public void testGetPage() {
+    Leaderboard leaderboard = new Leaderboard();
+    leaderboard.load(List.of(bert, bernard, alfred));
+
+    assertEquals(List.of(bernard, bert), leaderboard.getPage(null, 0, 2));
+    assertEquals(List.of(alfred), leaderboard.getPage("EASY", 1, 10));
+    assertTrue(leaderboard.getPage("EASY", 5, 10).isEmpty(), "Offsets past the end are empty.");
+    assertEquals(3, leaderboard.getPage(null, 0, Integer.MAX_VALUE).size());
+  }
+
+  @Test
+  public void testGetRank() {
+    Leaderboard leaderboard = new Leaderboard();
+    leaderboard.load(List.of(bert, bernard, alfred));
+
+    ScoreRank rank = leaderboard.getRank("EASY", 100);
+    assertEquals(1, rank.getRank(), "Equal scores should share the best place.");
+    assertEquals(2, rank.getTotal());
+    assertEquals(0.0, rank.getPercentile());
+
+    rank = leaderboard.getRank("EASY", 101);
+    assertEquals(3, rank.getRank());
+    assertEquals(1, leaderboard.getRank("MEDIUM", 500).getRank(), "An empty list has place 1.");
+  }
+}
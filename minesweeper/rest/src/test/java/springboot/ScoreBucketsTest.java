@@ -0,0 +1,43 @@
+package springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import core.UserScore;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ScoreBucketsTest {
+
+  @Test
+  public void testMatchesASortedList() {
+    ScoreBuckets buckets = new ScoreBuckets();
+    List<UserScore> sorted = new ArrayList<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 500; i++) {
+      UserScore userScore = new UserScore("player" + i, random.nextInt(50), "2023-11-01", "EASY");
+      int index = buckets.add(userScore);
+      sorted.add(userScore);
+      // A stable sort keeps equal scores in the order they were added.
+      sorted.sort(Comparator.comparingInt(UserScore::getScore));
+      assertEquals(sorted.lastIndexOf(userScore), index);
+    }
+
+    assertEquals(500, buckets.size());
+    assertEquals(names(sorted), names(buckets.toList()));
+    for (int offset = 0; offset <= 510; offset += 17) {
+      assertEquals(names(sorted.subList(Math.min(offset, 500), Math.min(offset + 10, 500))),
+          names(buckets.page(offset, 10)));
+    }
+    assertEquals(0, buckets.page(3, 0).size());
+
+    buckets.clear();
+    assertEquals(0, buckets.toList().size());
+  }
+
+  private static List<String> names(List<UserScore> userScores) {
+    return userScores.stream().map(UserScore::getName).toList();
+  }
+}
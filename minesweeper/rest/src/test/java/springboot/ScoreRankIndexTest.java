@@ -0,0 +1,30 @@
+package springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ScoreRankIndexTest {
+
+  @Test
+  public void testCountsMatchTheScores() {
+    ScoreRankIndex index = new ScoreRankIndex();
+    List<Integer> scores = new ArrayList<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 500; i++) {
+      int score = random.nextInt(1100); // Some of the scores are above the maximum time.
+      index.add(score);
+      scores.add(Math.min(score, 999));
+    }
+
+    assertEquals(500, index.size());
+    for (int score = 0; score <= 1000; score += 7) {
+      int clamped = Math.min(score, 999);
+      assertEquals(scores.stream().filter(s -> s < clamped).count(), index.countBelow(score));
+      assertEquals(scores.stream().filter(s -> s > clamped).count(), index.countAbove(score));
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package springboot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+public class ServerThreadsTest {
+
+  @Test
+  public void testPoolKeepsJettysThreadPool() {
+    JettyServletWebServerFactory factory = new JettyServletWebServerFactory();
+    new ServerThreads("pool").customize(factory);
+    assertNull(factory.getThreadPool(), "Jetty should make its own pool.");
+
+    assertThrows(IllegalArgumentException.class, () -> new ServerThreads("fibers"));
+  }
+
+  /**
+   * Starts a server with a thread per request, and checks that it answers requests.
+   */
+  @Test
+  public void testServerWithThreadPerRequest() throws Exception {
+    JettyServletWebServerFactory factory = new JettyServletWebServerFactory(0);
+    new ServerThreads("virtual").customize(factory);
+    assertTrue(factory.getThreadPool() instanceof PerTaskThreadPool);
+
+    WebServer server = factory.getWebServer();
+    server.start();
+    try {
+      HttpURLConnection connection = (HttpURLConnection)
+          new URL("http://localhost:" + server.getPort() + "/").openConnection();
+      assertEquals(404, connection.getResponseCode(),
+          "There is nothing to serve, but it should answer.");
+      connection.disconnect();
+    } finally {
+      server.stop();
+    }
+  }
+
+  /**
+   * Blocks more tasks at the same time than Jetty's pool has threads, which only works if every
+   * task gets a thread of its own.
+   */
+  @Test
+  public void testEveryTaskGetsAThread() throws Exception {
+    PerTaskThreadPool threadPool = new PerTaskThreadPool("test-");
+    threadPool.start();
+    try {
+      int tasks = 300;
+      CountDownLatch started = new CountDownLatch(tasks);
+      CountDownLatch release = new CountDownLatch(1);
+      for (int i = 0; i < tasks; i++) {
+        threadPool.execute(() -> {
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+      }
+
+      assertTrue(started.await(10, TimeUnit.SECONDS), "Every task should be running.");
+      assertEquals(tasks, threadPool.getThreads());
+      release.countDown();
+    } finally {
+      threadPool.stop();
+    }
+  }
+}
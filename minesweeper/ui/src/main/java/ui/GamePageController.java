@@ -1,5 +1,6 @@
 package ui;
 
+import core.BoardPool;
 import core.GameEngine;
 import core.Tile;
 import core.TileReadable;
@@ -9,8 +10,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -56,6 +59,10 @@ public class GamePageController {
   @FXML
   private VBox vbox;
 
+  // Shared by every game page, so the layouts made in the background are kept between games.
+  // One thread is enough to stay ahead of a single player, and leaves the rest of the CPU free.
+  private static final BoardPool BOARD_POOL = new BoardPool(4, 1);
+
   private RestRequest restRequest = new RestRequest("http://localhost:8080");
   protected GameEngine gameEngine;
   private Timeline timeline;
@@ -68,13 +75,16 @@ public class GamePageController {
 
   /**
    * Initializes the game page. Creates a new game engine, and sets the stage size.
-   * Also sets up the spacebar click, and updates the flags left label.
+   * Also sets up the spacebar click, and updates the flags left label. The bombs of every game
+   * are taken from a pool of layouts which is filled in the background, so neither a reset nor
+   * the first click waits for bombs to be placed.
 
    * @throws IOException If the fxml file is not found.
    */
   @FXML
   public void initialize() throws IOException {
-    this.gameEngine = new GameEngine();
+    BOARD_POOL.prefill(SettingsManager.getGameDifficulty());
+    this.gameEngine = new GameEngine(BOARD_POOL);
     newGameGrid();
     spaceBarClickSetup();
     flagsLeftLabel.setText(String.valueOf(gameEngine.getFlagsLeft()));
@@ -144,19 +154,36 @@ public class GamePageController {
 
   /**
    * Submits the current score to the highscore list.
-   * Uses the RestRequest class to send a POST request to the server.
+   * Uses the RestRequest class to send a POST request to the server,
+   * and then asks the server for the place the score got. Neither request is waited for, so the
+   * game does not freeze while the server answers. The feedback is shown when it arrives, and
+   * says so if the server could not be reached or did not accept the score.
    */
   @FXML
   public void submitHighscore() {
-    restRequest.writeToHighscore(new UserScore(nameField.getText(), gameEngine.getTime(),
-        gameEngine.getDate(), SettingsManager.getGameDifficultyAsString()));
-
+    feedbackLabel.setText("Sending to leaderboard...");
     feedbackLabel.setVisible(true);
     sendToLeaderBoardButton.setDisable(true);
     sendToLeaderBoardButton.setVisible(false);
     nameField.setVisible(false);
     nameField.setDisable(true);
     leaderBoardNameLabel.setVisible(false);
+
+    String difficulty = SettingsManager.getGameDifficultyAsString();
+    int time = gameEngine.getTime();
+    UserScore userScore = new UserScore(nameField.getText(), time, gameEngine.getDate(),
+        difficulty);
+    restRequest.writeToHighscoreAsync(userScore)
+        .thenCompose(written -> {
+          if (!written) {
+            return CompletableFuture.completedFuture("Could not send to leaderboard!");
+          }
+          return restRequest.readRankAsync(difficulty, time).thenApply(rank -> rank > 0
+              ? "Sent to leaderboard! You are number " + rank + "."
+              : "Sent to leaderboard!");
+        })
+        // The answers arrive on a background thread, and the label must be set on the FX thread.
+        .thenAcceptAsync(feedbackLabel::setText, Platform::runLater);
   }
 
   // Dynamic programming: For faster excecution store already importet images
@@ -6,6 +6,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -16,11 +18,14 @@ import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
+import javafx.stage.Window;
 
 /**
  * This class is used to control the highscore list page. Upon initialization,
- * it reads the highscore file and displays the top 10 scores.
+ * it asks the server for the top 10 scores of the selected difficulty, and displays them.
  * also sets the background color of the page, depending on the theme settings.
+ * While the page is open, new scores which make it into the top 10 are shown right away,
+ * since the server pushes them to the page.
  */
 public class HighscoreListController {
 
@@ -29,8 +34,9 @@ public class HighscoreListController {
   public static final int STAGE_HEIGHT = 460;
   private RestRequest restRequest = new RestRequest("http://localhost:8080");
   private String[] difficulties = { "EASY", "MEDIUM", "HARD" };
-  private List<UserScore> userScores;
   private List<UserScore> scoresToShow;
+  private LeaderboardSubscription subscription;
+  private ObservableValue<Boolean> pageShown;
   private List<Label> names;
   private List<Label> scores;
   private List<Label> dates;
@@ -104,15 +110,14 @@ public class HighscoreListController {
 
   /**
    * Initializes the highscore list page.
-   * Reads the highscore file and displays the top 10 scores.
+   * Follows the top 10 scores for the current difficulty on the server, and displays them when
+   * they arrive.
    * Also sets the background color of the page, depending on the theme settings.
 
    * @throws IOException If the FXML file for the game page could not be found.
    */
   @FXML
   public void initialize() {
-    userScores = restRequest.readFromHighscore();
-
     names = new ArrayList<>(Arrays.asList(
         name1, name2, name3, name4, name5, name6, name7, name8, name9, name10));
     scores = new ArrayList<>(Arrays.asList(
@@ -122,9 +127,26 @@ public class HighscoreListController {
 
     anchorPane.setStyle(SettingsManager.getThemeSettings().getBackgroundStyle());
     difficultyChoiceBox.getItems().addAll(difficulties);
-    difficultyChoiceBox.setValue(SettingsManager.getGameDifficultyAsString());
+    String currentDifficulty = SettingsManager.getGameDifficultyAsString();
+    if (!difficultyChoiceBox.getItems().contains(currentDifficulty)) {
+      // A custom difficulty has its own leaderboard.
+      difficultyChoiceBox.getItems().add(currentDifficulty);
+    }
+    difficultyChoiceBox.setValue(currentDifficulty);
     difficultyChoiceBox.setOnAction(event -> switchLeaderboardDifficulty());
     switchLeaderboardDifficulty(); // Show the highscores for the selected difficulty.
+
+    // The page is left when its scene is taken off the window, or when the window is closed.
+    // Either way the connection to the server is closed.
+    pageShown = anchorPane.sceneProperty()
+        .flatMap(Scene::windowProperty)
+        .flatMap(Window::showingProperty)
+        .orElse(false);
+    pageShown.addListener((observable, wasShown, isShown) -> {
+      if (!isShown) {
+        stopFollowingHighscores();
+      }
+    });
   }
 
   /**
@@ -135,6 +157,7 @@ public class HighscoreListController {
    */
   @FXML
   public void switchToGame(ActionEvent event) throws IOException {
+    stopFollowingHighscores();
     FXMLLoader fxmlLoader = new FXMLLoader(this.getClass().getResource("/ui/GamePage.fxml"));
     Parent root = fxmlLoader.load();
     Node eventSource = (Node) event.getSource();
@@ -163,13 +186,31 @@ public class HighscoreListController {
         difficultyLabel.setStyle("-fx-text-fill: red;");
         break;
       default:
-        throw new IllegalStateException("Invalid game difficulty: " + difficulty + "!");
+        if (!difficulty.startsWith("CUSTOM_")) {
+          throw new IllegalStateException("Invalid game difficulty: " + difficulty + "!");
+        }
+        difficultyLabel.setStyle("-fx-text-fill: purple;");
     }
 
-    scoresToShow = userScores.stream()
-        .filter(score -> score.getDifficulty().equals(difficulty))
-        .toList();
+    // The first event of the subscription is the highscores as they are, so they are only
+    // read on their own if the subscription can not be opened.
+    stopFollowingHighscores();
+    subscription = restRequest.subscribeToHighscores(difficulty, HIGHSCORE_LENGTH,
+        highscores -> Platform.runLater(() -> showHighscoresFor(difficulty, highscores)))
+        .onFailure(() -> restRequest.readFromHighscoreAsync(difficulty, HIGHSCORE_LENGTH)
+            .thenAcceptAsync(highscores -> showHighscoresFor(difficulty, highscores),
+                Platform::runLater));
+  }
 
+  private void showHighscoresFor(String difficulty, List<UserScore> highscores) {
+    // Scores for a difficulty which is no longer selected may still be on their way.
+    if (difficulty.equals(difficultyChoiceBox.getValue())) {
+      showHighscores(highscores);
+    }
+  }
+
+  private void showHighscores(List<UserScore> highscores) {
+    scoresToShow = highscores;
     for (int i = 0; i < HIGHSCORE_LENGTH; i++) {
       if (i < scoresToShow.size()) {
         names.get(i).setText(scoresToShow.get(i).getName());
@@ -183,6 +224,13 @@ public class HighscoreListController {
     }
   }
 
+  private void stopFollowingHighscores() {
+    if (subscription != null) {
+      subscription.close();
+      subscription = null;
+    }
+  }
+
   /**
    * Sets the RestRequest object for this class.
    * This method is used for testing purposes.
@@ -0,0 +1,161 @@
+package ui;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import core.JsonCodec;
+import core.UserScore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Follows the best highscores of a difficulty live, through the /highscores/stream endpoint.
+ * Create one with {@link RestRequest#subscribeToHighscores(String, int, Consumer)}.
+ *
+ * <p>The server first sends the best highscores, and then every new highscore which lands among
+ * them, together with its position. The new highscore is inserted at its position, which moves
+ * the highscores below it one place down, and the last one falls off the list. After every change
+ * the listener is given the whole list, so it can simply show it again.
+ *
+ * <p>The listener is called from a background thread. JavaFX controls must be updated with
+ * {@code Platform.runLater}.
+ *
+ * <p>If the connection can not be opened, for example because the server is down or does not
+ * support the stream, the listener is never called. Use {@link #onFailure(Runnable)} to read the
+ * highscores some other way instead.
+ */
+public class LeaderboardSubscription implements AutoCloseable {
+
+  private final int top;
+  private final Consumer<List<UserScore>> listener;
+  private final List<UserScore> highscores = new ArrayList<>();
+  private final StringBuilder data = new StringBuilder();
+  private String event = "message";
+  private final CompletableFuture<Void> failure = new CompletableFuture<>();
+  private CompletableFuture<Void> connection;
+  private Stream<String> lines;
+  private boolean closed;
+
+  LeaderboardSubscription(int top, Consumer<List<UserScore>> listener) {
+    this.top = top;
+    this.listener = listener;
+  }
+
+  /**
+   * Starts reading events from the response, when it arrives.
+   */
+  synchronized void start(CompletableFuture<HttpResponse<Stream<String>>> response) {
+    connection = response.thenAccept(this::read);
+    connection.whenComplete((ignored, e) -> {
+      if (e != null) {
+        fail();
+      }
+    });
+  }
+
+  /**
+   * Runs an action if the connection to the server could not be opened. It is not run if the
+   * subscription was closed first, or if the server closes a connection which was open.
+
+   * @param action What to do instead, run on a background thread.
+   * @return This subscription.
+   */
+  public LeaderboardSubscription onFailure(Runnable action) {
+    failure.thenRun(action);
+    return this;
+  }
+
+  /**
+   * Stops following the highscores, and closes the connection to the server.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (connection != null) {
+      connection.cancel(true);
+    }
+    if (lines != null) {
+      lines.close();
+    }
+  }
+
+  private void read(HttpResponse<Stream<String>> response) {
+    Stream<String> body = response.body();
+    synchronized (this) {
+      lines = body;
+      if (closed || response.statusCode() != 200) {
+        body.close();
+        fail();
+        return;
+      }
+    }
+    try (body) {
+      body.forEach(this::accept);
+    } catch (UncheckedIOException e) {
+      // The connection was closed, either by close() or by the server.
+    }
+  }
+
+  private void fail() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+    }
+    failure.complete(null);
+  }
+
+  /**
+   * Handles one line of the event stream. A blank line ends an event, see the specification of
+   * Server-Sent Events.
+   */
+  void accept(String line) {
+    if (line.isEmpty()) {
+      if (data.length() > 0) {
+        dispatch(event, data.toString());
+      }
+      event = "message";
+      data.setLength(0);
+    } else if (line.startsWith("event:")) {
+      event = line.substring("event:".length()).strip();
+    } else if (line.startsWith("data:")) {
+      if (data.length() > 0) {
+        data.append('\n');
+      }
+      String value = line.substring("data:".length());
+      data.append(value.startsWith(" ") ? value.substring(1) : value);
+    }
+    // Lines starting with ':' are comments, like the heartbeats of the server.
+  }
+
+  private void dispatch(String event, String data) {
+    try {
+      if ("snapshot".equals(event)) {
+        List<UserScore> snapshot = JsonCodec.scoreListReader().readValue(data);
+        highscores.clear();
+        highscores.addAll(snapshot.subList(0, Math.min(top, snapshot.size())));
+      } else if ("score".equals(event)) {
+        JsonNode change = JsonCodec.treeReader().readTree(data);
+        int position = change.path("position").asInt();
+        if (position < 1 || position > top || !change.hasNonNull("userScore")) {
+          return;
+        }
+        UserScore userScore = JsonCodec.scoreReader().readValue(change.get("userScore"));
+        highscores.add(Math.min(position - 1, highscores.size()), userScore);
+        if (highscores.size() > top) {
+          highscores.remove(highscores.size() - 1);
+        }
+      } else {
+        return;
+      }
+    } catch (IOException e) {
+      System.out.println("Could not read a highscore event from the server");
+      return;
+    }
+    listener.accept(List.copyOf(highscores));
+  }
+}
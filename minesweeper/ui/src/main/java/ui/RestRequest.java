@@ -1,22 +1,42 @@
 package ui;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import core.JsonCodec;
 import core.UserScore;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * This class is used to send HTTP requests to the /highscores endpoint. 
  * The supported operations are GET and POST (get and post highscores).
+ *
+ * <p>Highscores which have been read are kept, together with the ETag the server sent with them.
+ * The next time the same highscores are read, the ETag is sent back, and if nothing has changed
+ * the server only answers 304 Not Modified, and the kept highscores are used. The kept highscores
+ * are shared by every RestRequest, so they are still there when the highscore list is opened
+ * again.
+ *
+ * <p>Every request can also be sent without waiting for the answer, with the methods ending in
+ * Async. They return a CompletableFuture, which is completed on a thread of the HttpClient when
+ * the answer arrives. The user interface uses these, so that the JavaFX thread is never blocked
+ * by a slow or unreachable server.
  */
 public class RestRequest {
 
+  private static final Map<String, CachedHighscores> cache = new ConcurrentHashMap<>();
+
   private final HttpClient httpClient;
   private final String baseUri;
 
@@ -49,30 +69,161 @@ public class RestRequest {
    * @return A list of UserScore objects.
    */
   public List<UserScore> readFromHighscore() {
-    String endpoint = baseUri + "/highscores";
-    HttpRequest request = HttpRequest.newBuilder().uri(URI.create(endpoint)) 
+    return readFromHighscore(baseUri + "/highscores");
+  }
+
+  /**
+   * This method is used to send a GET request to the /highscores endpoint, asking only for the
+   * best highscores for one difficulty. The server does the filtering, so only the highscores
+   * which are shown have to be sent.
+
+   * @param difficulty The difficulty to get highscores for, like "EASY".
+   * @param limit The largest number of highscores to get.
+   * @return A list of at most limit UserScore objects, lower scores first.
+   */
+  public List<UserScore> readFromHighscore(String difficulty, int limit) {
+    return readFromHighscore(baseUri + "/highscores?difficulty="
+        + URLEncoder.encode(difficulty, StandardCharsets.UTF_8) + "&limit=" + limit);
+  }
+
+  private List<UserScore> readFromHighscore(String endpoint) {
+    CachedHighscores cached = cache.get(endpoint);
+    // Return an empty list as default, such that the game can still be played.
+    return send(highscoresRequest(endpoint, cached),
+        response -> highscoresFrom(endpoint, cached, response), new ArrayList<UserScore>());
+  }
+
+  /**
+   * Does the same as {@link #readFromHighscore()}, without waiting for the server. The request
+   * is sent in the background, and the returned future is completed when the answer arrives.
+
+   * @return A future with a list of UserScore objects, or an empty list if the server could not
+   *     answer. The future never fails.
+   */
+  public CompletableFuture<List<UserScore>> readFromHighscoreAsync() {
+    return readFromHighscoreAsync(baseUri + "/highscores");
+  }
+
+  /**
+   * Does the same as {@link #readFromHighscore(String, int)}, without waiting for the server.
+   * The future is completed on a background thread, so JavaFX controls must be updated with
+   * {@code Platform.runLater}, for example by passing it as the executor to
+   * {@link CompletableFuture#thenAcceptAsync(Consumer, java.util.concurrent.Executor)}.
+
+   * @param difficulty The difficulty to get highscores for, like "EASY".
+   * @param limit The largest number of highscores to get.
+   * @return A future with at most limit UserScore objects, lower scores first, or an empty list
+   *     if the server could not answer. The future never fails.
+   */
+  public CompletableFuture<List<UserScore>> readFromHighscoreAsync(String difficulty,
+      int limit) {
+    return readFromHighscoreAsync(baseUri + "/highscores?difficulty="
+        + URLEncoder.encode(difficulty, StandardCharsets.UTF_8) + "&limit=" + limit);
+  }
+
+  private CompletableFuture<List<UserScore>> readFromHighscoreAsync(String endpoint) {
+    CachedHighscores cached = cache.get(endpoint);
+    return sendAsync(highscoresRequest(endpoint, cached),
+        response -> highscoresFrom(endpoint, cached, response), new ArrayList<UserScore>());
+  }
+
+  private HttpRequest highscoresRequest(String endpoint, CachedHighscores cached) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder().uri(URI.create(endpoint)) 
         // Create a new Uniform Resource Identifier (URI) from a string.
         .header("Content-Type", "application/json")
         // Specify the content type of the request, which is JSON.
-        .GET() // Specify that this is a GET request.
-        .build(); // Build the request.
+        .GET(); // Specify that this is a GET request.
+    if (cached != null) {
+      // Ask the server to only send the highscores if they have changed.
+      builder.header("If-None-Match", cached.etag);
+    }
+    return builder.build(); // Build the request.
+  }
 
-    try {
-      // Send the request and get the response. We are specifying that the response
-      // should be a string.
-      HttpResponse<String> response = httpClient.send(request,
-          HttpResponse.BodyHandlers.ofString());
-
-      // Convert the response from a JSON string to a list of UserScore objects
-      ObjectMapper mapper = new ObjectMapper();
-      List<UserScore> userScores = mapper.readValue(response.body(),
-          new TypeReference<List<UserScore>>() {});
-      return userScores;
-    } catch (IOException | InterruptedException e) {
-      System.out.println("Connection to server failed!");
-      // Return an empty list as default, such that the game can still be played.
-      return new ArrayList<UserScore>();
+  private List<UserScore> highscoresFrom(String endpoint, CachedHighscores cached,
+      HttpResponse<String> response) throws IOException {
+    if (response.statusCode() == 304 && cached != null) {
+      return new ArrayList<>(cached.userScores);
+    } else if (response.statusCode() != 200) {
+      // The body of an error is not a list of highscores, and must not be cached as one.
+      throw new IOException("The server answered " + response.statusCode());
+    }
+
+    // Convert the response from a JSON string to a list of UserScore objects
+    List<UserScore> userScores = JsonCodec.scoreListReader().readValue(response.body());
+    Optional<String> etag = response.headers().firstValue("ETag");
+    if (etag.isPresent()) {
+      cache.put(endpoint, new CachedHighscores(etag.get(), List.copyOf(userScores)));
+    } else {
+      cache.remove(endpoint);
+    }
+    return userScores;
+  }
+
+  /**
+   * This method is used to send a GET request to the /highscores/rank endpoint. It asks the
+   * server which place a score has among the highscores for a difficulty.
+
+   * @param difficulty The difficulty to rank the score among, like "EASY".
+   * @param score The score, in seconds.
+   * @return The place of the score, 1 for the best score, or -1 if the server could not answer.
+   */
+  public int readRank(String difficulty, int score) {
+    return send(rankRequest(difficulty, score), RestRequest::rankFrom, -1);
+  }
+
+  /**
+   * Does the same as {@link #readRank(String, int)}, without waiting for the server.
+
+   * @param difficulty The difficulty to rank the score among, like "EASY".
+   * @param score The score, in seconds.
+   * @return A future with the place of the score, or -1 if the server could not answer. The
+   *     future never fails.
+   */
+  public CompletableFuture<Integer> readRankAsync(String difficulty, int score) {
+    return sendAsync(rankRequest(difficulty, score), RestRequest::rankFrom, -1);
+  }
+
+  private HttpRequest rankRequest(String difficulty, int score) {
+    String endpoint = baseUri + "/highscores/rank?difficulty="
+        + URLEncoder.encode(difficulty, StandardCharsets.UTF_8) + "&score=" + score;
+    return HttpRequest.newBuilder().uri(URI.create(endpoint))
+        .header("Content-Type", "application/json")
+        .GET()
+        .build();
+  }
+
+  private static int rankFrom(HttpResponse<String> response) throws IOException {
+    if (response.statusCode() != 200) {
+      return -1;
     }
+    return JsonCodec.treeReader().readTree(response.body()).path("rank").asInt(-1);
+  }
+
+  /**
+   * Follows the best highscores of a difficulty live. The listener is first given the highscores
+   * as they are, and then the new list every time a new highscore lands among them. The server
+   * pushes the changes over a connection which is kept open, so the highscores do not have to be
+   * asked for again and again. If the server can not be reached, the listener is never called.
+
+   * @param difficulty The difficulty to follow, like "EASY".
+   * @param top How many of the best highscores to follow.
+   * @param listener Is given the best highscores, lower scores first, on a background thread.
+   * @return The subscription, which must be closed when the highscores are no longer shown.
+   */
+  public LeaderboardSubscription subscribeToHighscores(String difficulty, int top,
+      Consumer<List<UserScore>> listener) {
+    HttpRequest request = HttpRequest.newBuilder()
+        .uri(URI.create(baseUri + "/highscores/stream?difficulty="
+            + URLEncoder.encode(difficulty, StandardCharsets.UTF_8) + "&top=" + top))
+        .header("Accept", "text/event-stream")
+        .GET()
+        .build();
+
+    LeaderboardSubscription subscription = new LeaderboardSubscription(top, listener);
+    // Each line of the stream is handed over as soon as it arrives.
+    subscription.start(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofLines()));
+    return subscription;
   }
 
   /**
@@ -83,25 +234,106 @@ public class RestRequest {
    * @param userScore This is the UserScore object which is written to the highscore file.
    */
   public void writeToHighscore(UserScore userScore) {
+    send(writeRequest(userScore), RestRequest::isWritten, false);
+  }
+
+  /**
+   * Does the same as {@link #writeToHighscore(UserScore)}, without waiting for the server. This
+   * is what the game page uses, so the game does not freeze while the highscore is sent.
+
+   * @param userScore This is the UserScore object which is written to the highscore file.
+   * @return A future which is completed with true if the server accepted the highscore, and
+   *     false if not or if the server could not be reached. The future never fails.
+   */
+  public CompletableFuture<Boolean> writeToHighscoreAsync(UserScore userScore) {
+    return sendAsync(writeRequest(userScore), RestRequest::isWritten, false);
+  }
+
+  private HttpRequest writeRequest(UserScore userScore) {
     String endpoint = baseUri + "/highscores";
-    HttpRequest request = HttpRequest.newBuilder().uri(URI.create(endpoint))
+    return HttpRequest.newBuilder().uri(URI.create(endpoint))
         .header("Content-Type", "application/json")
         .POST(HttpRequest.BodyPublishers
         .ofString(userScore.toJson())) // The restController has a @RequestBody
         // annotation, so we need to specify the body (The userScore) of the request.
         .build();
+  }
+
+  private static boolean isWritten(HttpResponse<String> response) {
+    if (response.statusCode() != 200) {
+      // Status code 200 means that the HTTP operation was received, understood and
+      // accepted. If the status code is not 200, something unexpected happened.
+      System.out.println("Something went wrong when writing to highscore");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Sends a request and waits for the answer.
 
+   * @param request The request to send.
+   * @param reader Reads the answer.
+   * @param fallback What to return if the server could not be reached, or sent something which
+   *     could not be read.
+   * @return What the reader read from the answer, or the fallback.
+   */
+  private <T> T send(HttpRequest request, ResponseReader<T> reader, T fallback) {
     try {
-      HttpResponse<String> response = httpClient.send(request,
-          HttpResponse.BodyHandlers.ofString());
-      if (response.statusCode() != 200) {
-        // Status code 200 means that the HTTP operation was received, understood and
-        // accepted. If the status code is not 200, something unexpected happened.
-        System.out.println("Something went wrong when writing to highscore");
-      }
+      // Send the request and get the response. We are specifying that the response
+      // should be a string.
+      return reader.read(httpClient.send(request, HttpResponse.BodyHandlers.ofString()));
     } catch (IOException | InterruptedException e) {
       // You land here if there are network failures, or if there are issues with the server.
       System.out.println("Connection to server failed!");
+      return fallback;
+    }
+  }
+
+  /**
+   * Sends a request without waiting for the answer. The HttpClient reads the answer on one of
+   * its own threads, and the future is completed there.
+
+   * @param request The request to send.
+   * @param reader Reads the answer.
+   * @param fallback What the future is completed with if the server could not be reached, or
+   *     sent something which could not be read.
+   * @return A future with what the reader read from the answer, or the fallback.
+   */
+  private <T> CompletableFuture<T> sendAsync(HttpRequest request, ResponseReader<T> reader,
+      T fallback) {
+    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenApply(response -> {
+          try {
+            return reader.read(response);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        })
+        .exceptionally(e -> {
+          System.out.println("Connection to server failed!");
+          return fallback;
+        });
+  }
+
+  /**
+   * Reads what is needed from the answer to a request.
+   */
+  @FunctionalInterface
+  private interface ResponseReader<T> {
+    T read(HttpResponse<String> response) throws IOException;
+  }
+
+  /**
+   * Highscores which have been read, together with the ETag the server sent with them.
+   */
+  private static final class CachedHighscores {
+    private final String etag;
+    private final List<UserScore> userScores;
+
+    private CachedHighscores(String etag, List<UserScore> userScores) {
+      this.etag = etag;
+      this.userScores = userScores;
     }
   }
 }
@@ -1,5 +1,7 @@
 package ui;
 
+import core.settings.CustomDifficulty;
+import core.settings.Difficulty;
 import core.settings.GameDifficulty;
 import core.settings.SettingsManager;
 import core.settings.ThemeSettings;
@@ -12,6 +14,7 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Line;
@@ -28,6 +31,16 @@ public class SettingsController {
   @FXML
   private Button hardButton;
   @FXML
+  private Button customButton;
+  @FXML
+  private TextField customWidthField;
+  @FXML
+  private TextField customHeightField;
+  @FXML
+  private TextField customBombsField;
+  @FXML
+  private Label customErrorLabel;
+  @FXML
   private Button darkModeButton;
   @FXML
   private Button lightModeButton;
@@ -43,6 +56,11 @@ public class SettingsController {
   public static final int STAGE_WIDTH = 600;
   public static final int STAGE_HEIGHT = 500;
 
+  // Every tile is its own image view, so the game page is kept to boards that fit on a screen.
+  // Larger custom boards can still be played through the core module directly.
+  public static final int MAX_CUSTOM_WIDTH = 50;
+  public static final int MAX_CUSTOM_HEIGHT = 30;
+
   /**
    * Initializes the settings page.
    * The buttons you are able to click are disabled/enabled
@@ -50,19 +68,23 @@ public class SettingsController {
    */
   @FXML
   public void initialize() {
-    switch (SettingsManager.getGameDifficulty()) {
-      case EASY:
-        setEasy();
-        break;
-      case MEDIUM:
-        setMedium();
-        break;
-      case HARD:
-        setHard();
-        break;
-      default:
-        throw new AssertionError("Unknown difficulty level: "
-            + SettingsManager.getGameDifficulty());
+    Difficulty difficulty = SettingsManager.getGameDifficulty();
+    if (difficulty instanceof CustomDifficulty) {
+      setCustom((CustomDifficulty) difficulty);
+    } else {
+      switch ((GameDifficulty) difficulty) {
+        case EASY:
+          setEasy();
+          break;
+        case MEDIUM:
+          setMedium();
+          break;
+        case HARD:
+          setHard();
+          break;
+        default:
+          throw new AssertionError("Unknown difficulty level: " + difficulty);
+      }
     }
 
     switch (SettingsManager.getThemeSettings()) {
@@ -87,6 +109,7 @@ public class SettingsController {
     easyButton.setDisable(true);
     mediumButton.setDisable(false);
     hardButton.setDisable(false);
+    customErrorLabel.setText("");
     SettingsManager.setGameDifficulty(GameDifficulty.EASY);
   }
 
@@ -100,6 +123,7 @@ public class SettingsController {
     easyButton.setDisable(false);
     mediumButton.setDisable(true);
     hardButton.setDisable(false);
+    customErrorLabel.setText("");
     SettingsManager.setGameDifficulty(GameDifficulty.MEDIUM);
   }
 
@@ -113,9 +137,46 @@ public class SettingsController {
     easyButton.setDisable(false);
     mediumButton.setDisable(false);
     hardButton.setDisable(true);
+    customErrorLabel.setText("");
     SettingsManager.setGameDifficulty(GameDifficulty.HARD);
   }
 
+  /**
+   * Sets the difficulty level to a custom board, with the width, height and number of bombs
+   * written in the text fields. If they are not valid, the reason is shown instead,
+   * and the difficulty level is left as it was.
+   */
+  @FXML
+  public void setCustom() {
+    try {
+      int width = Integer.parseInt(customWidthField.getText().trim());
+      int height = Integer.parseInt(customHeightField.getText().trim());
+      int bombs = Integer.parseInt(customBombsField.getText().trim());
+      if (width > MAX_CUSTOM_WIDTH || height > MAX_CUSTOM_HEIGHT) {
+        throw new IllegalArgumentException("The board can be at most "
+            + MAX_CUSTOM_WIDTH + "x" + MAX_CUSTOM_HEIGHT);
+      }
+      setCustom(new CustomDifficulty(width, height, bombs));
+    } catch (NumberFormatException e) {
+      customErrorLabel.setText("Width, height and bombs must be whole numbers");
+    } catch (IllegalArgumentException e) {
+      customErrorLabel.setText(e.getMessage());
+    }
+  }
+
+  private void setCustom(CustomDifficulty difficulty) {
+    difficultyLevelLabel.setText("Custom");
+    difficultyLevelLabel.setTextFill(Paint.valueOf("purple"));
+    easyButton.setDisable(false);
+    mediumButton.setDisable(false);
+    hardButton.setDisable(false);
+    customWidthField.setText(String.valueOf(difficulty.getGridWidth()));
+    customHeightField.setText(String.valueOf(difficulty.getGridHeight()));
+    customBombsField.setText(String.valueOf(difficulty.getNumBombs()));
+    customErrorLabel.setText("");
+    SettingsManager.setGameDifficulty(difficulty);
+  }
+
   /**
    * Switches to light mode.
    */
@@ -10,6 +10,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.testfx.api.FxRobot;
 import org.testfx.framework.junit5.ApplicationTest;
+import org.testfx.util.WaitForAsyncUtils;
 import org.testfx.matcher.control.LabeledMatchers;
 
 import core.GameEngine;
@@ -51,8 +53,10 @@ public class GamePageTest extends ApplicationTest {
     Mockito.doAnswer(inv -> {
       UserScore score = inv.getArgument(0, UserScore.class);
       HighscoreFileManager.writeToHighscore(score, HighscoreFileManager.getFile());
-      return null;
-    }).when(mockz).writeToHighscore(Mockito.any(UserScore.class));
+      return CompletableFuture.completedFuture(true);
+    }).when(mockz).writeToHighscoreAsync(Mockito.any(UserScore.class));
+    Mockito.when(mockz.readRankAsync(Mockito.anyString(), Mockito.anyInt()))
+        .thenReturn(CompletableFuture.completedFuture(1));
 
     GamePageController ctrl = new GamePageController();
     ctrl.setRestRequest(mockz);
@@ -138,6 +142,9 @@ public class GamePageTest extends ApplicationTest {
 
     robot.lookup("#nameField").queryTextInputControl().setText("TesterAAAAA");
     click("OK");
+    WaitForAsyncUtils.waitForFxEvents();
+    assertEquals("Sent to leaderboard! You are number 1.",
+        robot.lookup("#feedbackLabel").queryLabeled().getText());
 
     assertEquals(true, HighscoreFileManager.readFromHighscore(new File("./../appdata/highscore.json")).stream()
         .anyMatch(score -> score.getName().equals("TesterAAAAA")));
@@ -6,12 +6,14 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.testfx.api.FxRobot;
 import org.testfx.framework.junit5.ApplicationTest;
 import org.testfx.matcher.control.LabeledMatchers;
+import org.testfx.util.WaitForAsyncUtils;
 
 import core.UserScore;
 import core.settings.SettingsManager;
@@ -25,18 +27,28 @@ public class HighScoreListTest extends ApplicationTest {
 
   private Parent root;
   private FxRobot robot;
-  private RestRequest restRequest;
+  private final List<UserScore> allScores = List.of(
+      new UserScore("MineLegend", 14, "2021-04-19", "EASY"),
+      new UserScore("Christian", 100, "2021-04-20", "MEDIUM"),
+      new UserScore("David", 200, "2021-04-21", "HARD"),
+      new UserScore("Oskar", 300, "2021-04-22", "MEDIUM"),
+      new UserScore("Underdal", 400, "2021-04-23", "HARD"));
 
   @Override
   public void start(Stage stage) throws IOException {
     RestRequest mockzy = Mockito.mock(RestRequest.class);
-    this.restRequest = mockzy;
-    Mockito.when(mockzy.readFromHighscore()).thenReturn(List.of(
-        new UserScore("MineLegend", 14, "2021-04-19", "EASY"),
-        new UserScore("Christian", 100, "2021-04-20", "MEDIUM"),
-        new UserScore("David", 200, "2021-04-21", "HARD"),
-        new UserScore("Oskar", 300, "2021-04-22", "MEDIUM"),
-        new UserScore("Underdal", 400, "2021-04-23", "HARD")));
+    // The server filters the scores by difficulty, and only sends the top of the list.
+    // The first event of the subscription is the filtered highscores.
+    Mockito.when(mockzy.subscribeToHighscores(Mockito.anyString(), Mockito.anyInt(), Mockito.any()))
+        .thenAnswer(invocation -> {
+          int top = invocation.getArgument(1, Integer.class);
+          Consumer<List<UserScore>> listener = invocation.getArgument(2);
+          listener.accept(allScores.stream()
+              .filter(score -> score.getDifficulty().equals(invocation.getArgument(0)))
+              .limit(top)
+              .toList());
+          return new LeaderboardSubscription(top, listener);
+        });
 
     HighscoreListController ctrl = new HighscoreListController();
     ctrl.setRestRequest(mockzy);
@@ -70,6 +82,8 @@ public class HighScoreListTest extends ApplicationTest {
    * @param position  The position of the player in the highscore list (1-10)
    */
   private void checkPlayer(UserScore userScore, int position) {
+    // The highscores are shown on the FX thread once they have been read.
+    WaitForAsyncUtils.waitForFxEvents();
     assertEquals(userScore.getName(), robot.lookup("#name" + position).queryLabeled().getText());
     assertEquals("" + userScore.getScore(), robot.lookup("#score" + position).queryLabeled().getText());
     assertEquals(userScore.getDate(), robot.lookup("#date" + position).queryLabeled().getText());
@@ -77,8 +91,7 @@ public class HighScoreListTest extends ApplicationTest {
 
   @Test
   public void right_order() {
-    List<UserScore> userScores = restRequest.readFromHighscore();
-    userScores = userScores.stream()
+    List<UserScore> userScores = allScores.stream()
         .filter(score -> score.getDifficulty().equals(SettingsManager.getGameDifficultyAsString()))
         .sorted((a, b) -> a.getScore() - b.getScore())
         .toList();
@@ -97,7 +110,7 @@ public class HighScoreListTest extends ApplicationTest {
 
   @Test
   public void testChoiceBox() {
-    List<UserScore> userScores = restRequest.readFromHighscore();
+    List<UserScore> userScores = allScores;
     
     @SuppressWarnings("unchecked") // We know that the ChoiceBox is of type String.
     ChoiceBox<String> choiceBox = robot.lookup("#difficultyChoiceBox").queryAs(ChoiceBox.class);
@@ -4,6 +4,7 @@ import core.UserScore;
 import core.savehandler.HighscoreFileManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import java.io.ByteArrayOutputStream;
@@ -11,9 +12,15 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -59,6 +66,7 @@ public class RestRequestTest {
     HttpResponse<String> mockResponse = (HttpResponse<String>) mock(HttpResponse.class);
     when(mockResponse.body()).thenReturn(body);
     when(mockResponse.statusCode()).thenReturn(200);
+    when(mockResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
     
     when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
         .thenReturn(mockResponse);
@@ -73,6 +81,196 @@ public class RestRequestTest {
     assertEquals("EASY", result.get(0).getDifficulty(), "The difficulty should be EASY.");
   }
 
+  /**
+   * This test checks that the difficulty and limit are sent to the server as query parameters,
+   * so that the server only sends the highscores which are shown.
+
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testReadFromHighscoreWithDifficulty() throws IOException, InterruptedException {
+    HttpResponse<String> mockResponse = (HttpResponse<String>) mock(HttpResponse.class);
+    when(mockResponse.body()).thenReturn("[]");
+    when(mockResponse.statusCode()).thenReturn(200);
+    when(mockResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+    when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenReturn(mockResponse);
+
+    List<UserScore> result = restRequest.readFromHighscore("CUSTOM_30x16_99", 10);
+    assertEquals(0, result.size());
+
+    ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+    Mockito.verify(mockHttpClient).send(captor.capture(), any(HttpResponse.BodyHandler.class));
+    assertEquals("http://localhost:8080/highscores?difficulty=CUSTOM_30x16_99&limit=10",
+        captor.getValue().uri().toString());
+  }
+
+  /**
+   * This test checks that highscores which have been read are sent back as an ETag, and that
+   * they are used again when the server answers that they have not changed.
+
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testReadFromHighscoreRevalidatesCachedCopy()
+      throws IOException, InterruptedException {
+    UserScore david = new UserScore("David", 4, "2024-01-01", "HARD");
+    HttpResponse<String> okResponse = (HttpResponse<String>) mock(HttpResponse.class);
+    when(okResponse.body()).thenReturn("[" + david.toJson() + "]");
+    when(okResponse.statusCode()).thenReturn(200);
+    when(okResponse.headers()).thenReturn(
+        HttpHeaders.of(Map.of("ETag", List.of("\"abc-1\"")), (name, value) -> true));
+    HttpResponse<String> notModifiedResponse = (HttpResponse<String>) mock(HttpResponse.class);
+    when(notModifiedResponse.body()).thenReturn("");
+    when(notModifiedResponse.statusCode()).thenReturn(304);
+    when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenReturn(okResponse, notModifiedResponse);
+
+    assertEquals(1, restRequest.readFromHighscore("HARD", 5).size());
+    List<UserScore> result = restRequest.readFromHighscore("HARD", 5);
+    assertEquals(1, result.size(), "The cached highscores should be used on 304 Not Modified.");
+    assertEquals("David", result.get(0).getName());
+
+    ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+    Mockito.verify(mockHttpClient, Mockito.times(2))
+        .send(captor.capture(), any(HttpResponse.BodyHandler.class));
+    assertEquals(Optional.of("\"abc-1\""),
+        captor.getAllValues().get(1).headers().firstValue("If-None-Match"));
+  }
+
+  /**
+   * This test checks that an error response is not read as highscores, and is not cached even
+   * if it has an ETag.
+
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testReadFromHighscoreErrorResponse() throws IOException, InterruptedException {
+    PrintStream orgOut = System.out;
+    System.setOut(new PrintStream(new ByteArrayOutputStream()));
+
+    HttpResponse<String> errorResponse = (HttpResponse<String>) mock(HttpResponse.class);
+    when(errorResponse.body()).thenReturn("[]");
+    when(errorResponse.statusCode()).thenReturn(500);
+    when(errorResponse.headers()).thenReturn(
+        HttpHeaders.of(Map.of("ETag", List.of("\"error\"")), (name, value) -> true));
+    when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenReturn(errorResponse);
+
+    assertEquals(0, restRequest.readFromHighscore("MEDIUM", 7).size());
+    restRequest.readFromHighscore("MEDIUM", 7);
+    System.setOut(orgOut);
+
+    ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+    Mockito.verify(mockHttpClient, Mockito.times(2))
+        .send(captor.capture(), any(HttpResponse.BodyHandler.class));
+    assertEquals(Optional.empty(),
+        captor.getAllValues().get(1).headers().firstValue("If-None-Match"),
+        "The error should not have been cached.");
+  }
+
+  /**
+   * This test checks that a subscription applies the events the server pushes: first the best
+   * highscores, and then new highscores at their position, with the last one falling off.
+
+   * @throws IOException
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testSubscribeToHighscores() throws IOException {
+    UserScore david = new UserScore("David", 4, "2024-01-01", "EASY");
+    UserScore oskar = new UserScore("Oskar", 5, "2023-11-08", "EASY");
+    UserScore bert = new UserScore("Bert", 3, "2023-11-09", "EASY");
+    Stream<String> events = Stream.of(
+        "event:snapshot", "data:[" + david.toJson() + "," + oskar.toJson() + "]", "",
+        ":heartbeat", "",
+        "event:score", "data:{\"userScore\":" + bert.toJson() + ",\"position\":1,\"total\":3}",
+        "");
+    HttpResponse<Stream<String>> mockResponse =
+        (HttpResponse<Stream<String>>) mock(HttpResponse.class);
+    when(mockResponse.statusCode()).thenReturn(200);
+    when(mockResponse.body()).thenReturn(events);
+    when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenReturn(CompletableFuture.completedFuture(mockResponse));
+
+    List<List<UserScore>> updates = new ArrayList<>();
+    try (LeaderboardSubscription subscription =
+        restRequest.subscribeToHighscores("EASY", 2, updates::add)) {
+      assertEquals(List.of(List.of("David", "Oskar"), List.of("Bert", "David")),
+          updates.stream().map(update -> update.stream().map(UserScore::getName).toList())
+              .toList(),
+          "Bert should be first, and Oskar should fall off the top 2.");
+    }
+
+    ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+    Mockito.verify(mockHttpClient).sendAsync(captor.capture(), any(HttpResponse.BodyHandler.class));
+    assertEquals("http://localhost:8080/highscores/stream?difficulty=EASY&top=2",
+        captor.getValue().uri().toString());
+  }
+
+  /**
+   * This test checks that the failure action of a subscription runs when the stream can not be
+   * opened, but not when the subscription was closed first.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testSubscriptionFailure() {
+    HttpResponse<Stream<String>> mockResponse =
+        (HttpResponse<Stream<String>>) mock(HttpResponse.class);
+    when(mockResponse.statusCode()).thenReturn(503);
+    when(mockResponse.body()).thenReturn(Stream.empty());
+    CompletableFuture<HttpResponse<Stream<String>>> response = new CompletableFuture<>();
+    when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenReturn(response)
+        .thenReturn(CompletableFuture.failedFuture(new IOException("Connection refused")));
+
+    List<String> failures = new ArrayList<>();
+    LeaderboardSubscription closed = restRequest.subscribeToHighscores("EASY", 10, update -> { })
+        .onFailure(() -> failures.add("closed"));
+    closed.close();
+    response.complete(mockResponse);
+
+    restRequest.subscribeToHighscores("EASY", 10, update -> { })
+        .onFailure(() -> failures.add("refused"))
+        .close();
+    assertEquals(List.of("refused"), failures);
+
+    when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenReturn(CompletableFuture.completedFuture(mockResponse));
+    restRequest.subscribeToHighscores("EASY", 10, update -> { })
+        .onFailure(() -> failures.add("unavailable"));
+    assertEquals(List.of("refused", "unavailable"), failures);
+  }
+
+  /**
+   * This test checks that the rank is read from the response of the rank endpoint,
+   * and that -1 is returned when the server does not answer with a rank.
+
+   * @throws IOException
+   * @throws InterruptedException
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testReadRank() throws IOException, InterruptedException {
+    HttpResponse<String> mockResponse = (HttpResponse<String>) mock(HttpResponse.class);
+    when(mockResponse.body()).thenReturn(
+        "{\"difficulty\":\"HARD\",\"score\":42,\"rank\":3,\"total\":10,\"percentile\":70.0}");
+    when(mockResponse.statusCode()).thenReturn(200);
+    when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenReturn(mockResponse);
+
+    assertEquals(3, restRequest.readRank("HARD", 42));
+
+    when(mockResponse.statusCode()).thenReturn(400);
+    assertEquals(-1, restRequest.readRank("IMPOSSIBLE", 42));
+  }
+
   /**
    * This test checks that the RestRequest class is able to handle exceptions when reading from
    * the highscore list. We want to make sure that the game is still playable even though the
@@ -207,6 +405,62 @@ public class RestRequestTest {
     System.setOut(orgOut);
   }
 
+  /**
+   * This test checks that the asynchronous methods send their requests with sendAsync, so that
+   * the caller never waits, and that the answers are read the same way as by the other methods.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testAsyncRequests() throws Exception {
+    UserScore david = new UserScore("David", 4, "2024-01-01", "EASY");
+    HttpResponse<String> highscoreResponse = (HttpResponse<String>) mock(HttpResponse.class);
+    when(highscoreResponse.body()).thenReturn("[" + david.toJson() + "]");
+    when(highscoreResponse.statusCode()).thenReturn(200);
+    when(highscoreResponse.headers())
+        .thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+    HttpResponse<String> rankResponse = (HttpResponse<String>) mock(HttpResponse.class);
+    when(rankResponse.body()).thenReturn("{\"rank\":2}");
+    when(rankResponse.statusCode()).thenReturn(200);
+
+    when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenReturn(CompletableFuture.completedFuture(highscoreResponse))
+        .thenReturn(CompletableFuture.completedFuture(rankResponse))
+        .thenReturn(CompletableFuture.completedFuture(rankResponse));
+
+    List<UserScore> result = restRequest.readFromHighscoreAsync("EASY", 10).get();
+    assertEquals(1, result.size());
+    assertEquals("David", result.get(0).getName());
+    assertEquals(2, restRequest.readRankAsync("EASY", 4).get());
+    assertEquals(true, restRequest.writeToHighscoreAsync(david).get());
+
+    Mockito.verify(mockHttpClient, Mockito.never())
+        .send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+  }
+
+  /**
+   * This test checks that the futures of the asynchronous methods never fail, but are completed
+   * with the same defaults as the other methods return when the server can not be reached.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testAsyncRequestsWhenServerIsDown() throws Exception {
+    PrintStream orgOut = System.out;
+    ByteArrayOutputStream newOut = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(newOut));
+
+    when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .thenAnswer(invocation -> CompletableFuture.failedFuture(
+            new IOException("Could not connect to server.")));
+
+    assertEquals(0, restRequest.readFromHighscoreAsync().get().size());
+    assertEquals(-1, restRequest.readRankAsync("EASY", 4).get());
+    assertEquals(false, restRequest.writeToHighscoreAsync(
+        new UserScore("Oskar", 5, "2023-11-08", "EASY")).get());
+    assertEquals(3, newOut.toString().strip().lines().count());
+
+    System.setOut(orgOut);
+  }
+
   @Test
   public void testConstructor() {
     new RestRequest("http://localhost:8080");
@@ -10,6 +10,7 @@ import org.testfx.api.FxRobot;
 import org.testfx.framework.junit5.ApplicationTest;
 import org.testfx.matcher.control.LabeledMatchers;
 
+import core.settings.CustomDifficulty;
 import core.settings.GameDifficulty;
 import core.settings.SettingsManager;
 import javafx.fxml.FXMLLoader;
@@ -88,6 +89,24 @@ public class SettingsControllerTest extends ApplicationTest {
         assertTrue((GameDifficulty.EASY == SettingsManager.getGameDifficulty()));
     }
 
+    @Test
+    public void testSetCustom() {
+        clickOn("#customWidthField").write("20");
+        clickOn("#customHeightField").write("15");
+        clickOn("#customBombsField").write("300");
+        clickOn(robot.lookup("#customButton").queryButton());
+        // 300 bombs do not fit on a 20x15 board, so the difficulty should not change.
+        assertEquals(false, robot.lookup("#customErrorLabel").queryLabeled().getText().isEmpty());
+        assertEquals(false, SettingsManager.getGameDifficulty() instanceof CustomDifficulty);
+
+        robot.lookup("#customBombsField").queryTextInputControl().setText("50");
+        clickOn(robot.lookup("#customButton").queryButton());
+        assertEquals("Custom", robot.lookup("#difficultyLevelLabel").queryLabeled().getText());
+        assertEquals(true, robot.lookup("#customErrorLabel").queryLabeled().getText().isEmpty());
+        assertEquals(new CustomDifficulty(20, 15, 50), SettingsManager.getGameDifficulty());
+        SettingsManager.setGameDifficulty(GameDifficulty.EASY);
+    }
+
     @Test
     public void testSetDarkMode() {
         clickOn(robot.lookup("#darkModeButton").queryButton());